@@ -0,0 +1,69 @@
+package benchmarks;
+
+import api.OrderAPI;
+import api.UserAPI;
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import service.Order;
+import service.OrderStore;
+import service.User;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.UUID;
+
+import static org.apache.http.HttpStatus.SC_OK;
+
+// настоящие ответы встроенной заглушки, полученные один раз по loopback; бенчмарки разбирают их повторно
+@State(Scope.Benchmark)
+public class LoopbackState {
+    // уровень журнала: OFF - цена ленивого вывода, INFO - вывод включён (stdout уходит в никуда)
+    @Param({"OFF", "INFO"})
+    public String logLevel;
+
+    public final UserAPI userAPI = new UserAPI();
+    public final OrderAPI orderAPI = new OrderAPI();
+    public User user;
+    public String accessToken;
+    public Response userDataResponse;
+    public Response ingredientsResponse;
+    public Response allOrdersResponse;
+    public OrderStore orderStore;
+
+    private PrintStream stdout;
+
+    @Setup
+    public void setup() {
+        // настройки читаются при загрузке Log и Utilities, поэтому задаются до первого запроса
+        System.setProperty("log.level", logLevel);
+        System.setProperty("stellar.stub", "true");
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        user = new User("bench-" + UUID.randomUUID() + "@example.com", "password123", "Бенчмарк");
+        Response created = userAPI.userCreating(user);
+        created.then().statusCode(SC_OK);
+        accessToken = userAPI.getAccessToken(created);
+        userDataResponse = userAPI.getUserData(user, accessToken);
+        ingredientsResponse = orderAPI.getIngredients();
+
+        // лента из полусотни заказов, как у живого бэкенда на первой странице
+        for (int i = 0; i < 50; i++) {
+            String ingredientId = OrderAPI.getIngredientId(ingredientsResponse, i % 5);
+            orderAPI.orderCreateForUser(new Order(List.of(ingredientId)), user, accessToken).then().statusCode(SC_OK);
+        }
+        allOrdersResponse = orderAPI.getAllOrdersList();
+        allOrdersResponse.then().statusCode(SC_OK);
+        orderStore = OrderStore.of(allOrdersResponse);
+    }
+
+    @TearDown
+    public void tearDown() {
+        System.setOut(stdout);
+    }
+}
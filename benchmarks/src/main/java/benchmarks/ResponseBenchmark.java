@@ -0,0 +1,80 @@
+package benchmarks;
+
+import api.OrderAPI;
+import io.restassured.response.Response;
+import service.OrderResponse;
+import service.OrderStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_OK;
+import static service.Utilities.extractUserData;
+import static service.Utilities.printResponseInfo;
+
+// разбор и печать уже полученных ответов: то, что тесты делают после каждого запроса
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    // два отдельных вычисления JsonPath над одним телом
+    @Benchmark
+    public String extractUserDataFromResponse(LoopbackState state) {
+        return extractUserData(state.userDataResponse);
+    }
+
+    @Benchmark
+    public String getIngredientId(LoopbackState state) {
+        return OrderAPI.getIngredientId(state.ingredientsResponse, 3);
+    }
+
+    @Benchmark
+    public Response getRequiredListOfOrdersFromDB(LoopbackState state) {
+        return state.orderAPI.getRequiredListOfOrdersFromDB(state.allOrdersResponse, 0, 10);
+    }
+
+    // индексы строятся заново: цена заполнения хранилища из ответа
+    @Benchmark
+    public OrderStore buildOrderStore(LoopbackState state) {
+        OrderStore store = OrderStore.of(state.allOrdersResponse);
+        store.byNumber(0);
+        return store;
+    }
+
+    @Benchmark
+    public List<OrderResponse.OrderData> orderStoreIngredientLastHour(LoopbackState state) {
+        Instant now = Instant.now();
+        return state.orderStore.withIngredient(OrderAPI.getIngredientId(state.ingredientsResponse, 3),
+                now.minus(1, ChronoUnit.HOURS), now);
+    }
+
+    @Benchmark
+    public List<OrderResponse.OrderData> orderStoreByStatus(LoopbackState state) {
+        return state.orderStore.byStatus("done");
+    }
+
+    // ожидаемый статус: вывод с данными пользователя
+    @Benchmark
+    public void printResponseInfoExpected(LoopbackState state) {
+        printResponseInfo(state.userDataResponse, SC_OK, () -> extractUserData(state.userDataResponse));
+    }
+
+    // неожиданный статус: предупреждение с телом ответа
+    @Benchmark
+    public void printResponseInfoUnexpected(LoopbackState state) {
+        printResponseInfo(state.userDataResponse, SC_ACCEPTED, "");
+    }
+}
@@ -0,0 +1,33 @@
+package benchmarks;
+
+import io.restassured.response.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// полный путь запроса через UserAPI и RestAssured до заглушки на loopback и обратно:
+// сеть почти ничего не стоит, поэтому в замере остаются накладные расходы клиента;
+// ограничение частоты RateLimiter (50 запр/с по умолчанию) выключено, иначе замер упёрся бы в него
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dstub.latencyMs=0", "-Dratelimit.rps=0"})
+public class RoundTripBenchmark {
+
+    @Benchmark
+    public Response loginUser(LoopbackState state) {
+        return state.userAPI.loginUser(state.user);
+    }
+
+    @Benchmark
+    public Response getUserData(LoopbackState state) {
+        return state.userAPI.getUserData(state.user, state.accessToken);
+    }
+}
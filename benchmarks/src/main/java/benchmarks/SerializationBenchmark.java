@@ -0,0 +1,98 @@
+package benchmarks;
+
+import com.google.gson.Gson;
+import io.restassured.path.json.mapper.factory.DefaultGsonObjectMapperFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import service.JsonBodies;
+import service.JsonBuffer;
+import service.Order;
+import service.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// сериализация тел запросов: Gson из фабрики маппера RestAssured против JsonBodies без рефлексии.
+// С -prof gc у *IntoPooledBuffer значение gc.alloc.rate.norm должно быть около нуля
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlog.level=OFF")
+public class SerializationBenchmark {
+    private Gson userMapper;
+    private Gson orderMapper;
+    private User user;
+    private Order order;
+    private String refreshToken;
+
+    @Setup
+    public void setup() {
+        DefaultGsonObjectMapperFactory factory = new DefaultGsonObjectMapperFactory();
+        userMapper = factory.create(User.class, "UTF-8");
+        orderMapper = factory.create(Order.class, "UTF-8");
+        user = new User("bench-user@example.com", "password123", "Бенчмарк");
+        order = new Order(List.of("61c0c5a71d1f82001bdaaa6d", "61c0c5a71d1f82001bdaaa6f", "61c0c5a71d1f82001bdaaa70"));
+        refreshToken = "0f6b7ea1c2d3e4f5a6b7c8d9e0f1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d7e8f9a0b1c2d3e4f5a6b7";
+    }
+
+    @Benchmark
+    public String userToJson() {
+        return userMapper.toJson(user);
+    }
+
+    @Benchmark
+    public String orderToJson() {
+        return orderMapper.toJson(order);
+    }
+
+    @Benchmark
+    public String tokenStringFormat() {
+        return String.format("{\"token\":\"%s\"}", refreshToken);
+    }
+
+    // запись в буфер из пула: то, что остаётся от сериализации без копии для RestAssured
+    @Benchmark
+    public int userIntoPooledBuffer() {
+        JsonBuffer buffer = JsonBodies.acquire();
+        int length = JsonBodies.writeUser(user, buffer).length();
+        JsonBodies.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public int orderIntoPooledBuffer() {
+        JsonBuffer buffer = JsonBodies.acquire();
+        int length = JsonBodies.writeOrder(order, buffer).length();
+        JsonBodies.release(buffer);
+        return length;
+    }
+
+    @Benchmark
+    public int tokenIntoPooledBuffer() {
+        JsonBuffer buffer = JsonBodies.acquire();
+        int length = JsonBodies.writeToken(refreshToken, buffer).length();
+        JsonBodies.release(buffer);
+        return length;
+    }
+
+    // готовое тело для RestAssured: одна точная копия байтов
+    @Benchmark
+    public byte[] userBytes() {
+        return JsonBodies.user(user);
+    }
+
+    @Benchmark
+    public byte[] orderBytes() {
+        return JsonBodies.order(order);
+    }
+}
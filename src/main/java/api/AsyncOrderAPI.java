@@ -0,0 +1,53 @@
+package api;
+
+import service.ApiResponse;
+import service.AsyncTransport;
+import service.Order;
+
+import java.util.concurrent.CompletableFuture;
+
+import static service.Utilities.*;
+
+// асинхронный двойник OrderAPI: методы сразу возвращают CompletableFuture и не занимают поток на время запроса
+public class AsyncOrderAPI {
+    private final String baseUri;
+
+    public AsyncOrderAPI () {
+        this(BASE_URI);
+    }
+
+    // запросы в другой адрес, например в отдельную заглушку теста
+    public AsyncOrderAPI (String baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    // GET. Список ингредиентов. Ручка api/ingredients.
+    public CompletableFuture<ApiResponse> getIngredients () {
+        return AsyncTransport.send(baseUri, "GET", GET_INGREDIENTS, null, null);
+    }
+
+    // POST. Создание заказа для авторизованного пользователя. Ручка api/orders.
+    public CompletableFuture<ApiResponse> orderCreateForUser (Order order, String accessToken) {
+        return AsyncTransport.send(baseUri, "POST", ORDER_CREATE, order, accessToken);
+    }
+
+    // POST. Создание заказа без авторизации. Ручка api/orders.
+    public CompletableFuture<ApiResponse> orderCreateWithoutUser (Order order) {
+        return AsyncTransport.send(baseUri, "POST", ORDER_CREATE, order, null);
+    }
+
+    // GET. Список заказов авторизованного пользователя. Ручка api/orders.
+    public CompletableFuture<ApiResponse> getUserOrderList (String accessToken) {
+        return AsyncTransport.send(baseUri, "GET", ORDER_CREATE, null, accessToken);
+    }
+
+    // GET. Список всех заказов. Ручка api/orders/all.
+    public CompletableFuture<ApiResponse> getAllOrdersList () {
+        return AsyncTransport.send(baseUri, "GET", ORDER_GET_ALL, null, null);
+    }
+
+    // извлечение айди ингредиента по его индексу
+    public static String getIngredientId (ApiResponse response, int index) {
+        return response.path(String.format("data[%d]._id", index));
+    }
+}
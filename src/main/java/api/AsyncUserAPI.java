@@ -0,0 +1,66 @@
+package api;
+
+import service.ApiResponse;
+import service.AsyncTransport;
+import service.JsonBodies;
+import service.User;
+
+import java.util.concurrent.CompletableFuture;
+
+import static service.Utilities.*;
+
+// асинхронный двойник UserAPI: методы сразу возвращают CompletableFuture и не занимают поток на время запроса
+public class AsyncUserAPI {
+    private final String baseUri;
+
+    public AsyncUserAPI () {
+        this(BASE_URI);
+    }
+
+    // запросы в другой адрес, например в отдельную заглушку теста
+    public AsyncUserAPI (String baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    // POST. Создание пользователя. Ручка api/auth/register.
+    public CompletableFuture<ApiResponse> userCreating (User user) {
+        return AsyncTransport.send(baseUri, "POST", USER_CREATE, user, null);
+    }
+
+    // POST. Логин пользователя. Ручка api/auth/login.
+    public CompletableFuture<ApiResponse> loginUser (User user) {
+        return AsyncTransport.send(baseUri, "POST", USER_LOGIN, user, null);
+    }
+
+    // POST. Выход пользователя из системы. Ручка api/auth/logout.
+    public CompletableFuture<ApiResponse> logoutUser (String refreshToken) {
+        byte[] body = JsonBodies.token(refreshToken);
+        return AsyncTransport.send(baseUri, "POST", USER_LOGOUT, body, null);
+    }
+
+    // GET. Данные пользователя. Ручка api/auth/user.
+    public CompletableFuture<ApiResponse> getUserData (String accessToken) {
+        return AsyncTransport.send(baseUri, "GET", USER_DATA, null, accessToken);
+    }
+
+    // PATCH. Изменение данных пользователя. Ручка api/auth/user.
+    public CompletableFuture<ApiResponse> changeUserData (User user, String accessToken) {
+        return AsyncTransport.send(baseUri, "PATCH", USER_DATA, user, accessToken);
+    }
+
+    // DELETE. Удаление пользователя. Ручка api/auth/user.
+    public CompletableFuture<ApiResponse> deleteUser (String accessToken) {
+        return AsyncTransport.send(baseUri, "DELETE", USER_DELETE, null, accessToken);
+    }
+
+    // извлечение accessToken без префикса "Bearer "
+    public static String getAccessToken (ApiResponse response) {
+        String untrimmedAccessToken = response.path("accessToken");
+        return untrimmedAccessToken.substring(7);
+    }
+
+    // извлечение refreshToken
+    public static String getRefreshToken (ApiResponse response) {
+        return response.path("refreshToken");
+    }
+}
@@ -0,0 +1,200 @@
+package api;
+
+import service.ApiResponse;
+import service.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+
+// реестр созданных пользователей: всё, что не удалили сами тесты, удаляется пакетами в конце класса или прогона
+public class CleanupRegistry {
+    // настройки удаления, переопределяются через -D
+    public static final int THREADS = Integer.getInteger("cleanup.threads", 8);
+    public static final int BATCH_SIZE = Integer.getInteger("cleanup.batchSize", 50);
+    public static final int RETRIES = Integer.getInteger("cleanup.retries", 3);
+    private static final long TIMEOUT_SECONDS = 30;
+
+    // email -> пользователь, которого ещё нужно удалить, и accessToken -> email для forget
+    private static final Map<String, Entry> PENDING = new ConcurrentHashMap<>();
+    private static final Map<String, String> EMAILS = new ConcurrentHashMap<>();
+    // тестовый класс, который выполняется в этом потоке; задают раннеры пакета runner, см. runAs
+    private static final ThreadLocal<String> OWNER = new ThreadLocal<>();
+    private static final AsyncUserAPI ASYNC_USER_API = new AsyncUserAPI();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CleanupRegistry::flush));
+    }
+
+    private CleanupRegistry() {
+    }
+
+    // регистрация созданного пользователя; владелец - тестовый класс текущего потока,
+    // без раннера пакета runner владельца нет и пользователь удаляется только в конце прогона
+    public static void register(String email, String accessToken) {
+        String owner = OWNER.get();
+        Entry previous = PENDING.put(email, new Entry(accessToken, owner != null ? owner : ""));
+        if (previous != null) {
+            EMAILS.remove(previous.accessToken, email);
+        }
+        EMAILS.put(accessToken, email);
+    }
+
+    // пользователь удалён вне реестра
+    public static void forget(String accessToken) {
+        String email = EMAILS.remove(accessToken);
+        if (email != null) {
+            PENDING.computeIfPresent(email, (key, entry) -> entry.accessToken.equals(accessToken) ? null : entry);
+        }
+    }
+
+    // выполнение кода от имени тестового класса: созданные в нём пользователи удаляет flush(owner)
+    public static void runAs(Class<?> owner, Runnable body) {
+        String previous = OWNER.get();
+        OWNER.set(owner.getName());
+        try {
+            body.run();
+        } finally {
+            if (previous != null) {
+                OWNER.set(previous);
+            } else {
+                OWNER.remove();
+            }
+        }
+    }
+
+    public static int pendingCount() {
+        return PENDING.size();
+    }
+
+    // удаление пользователей, созданных из указанного класса, например в @AfterClass
+    public static Report flush(Class<?> owner) {
+        List<String> emails = new ArrayList<>();
+        PENDING.forEach((email, entry) -> {
+            if (entry.owner.equals(owner.getName())) {
+                emails.add(email);
+            }
+        });
+        return delete(emails);
+    }
+
+    // удаление всех зарегистрированных пользователей, в конце прогона
+    public static Report flush() {
+        return delete(new ArrayList<>(PENDING.keySet()));
+    }
+
+    // удаление пользователей параллельными пакетами на ограниченном пуле потоков
+    private static Report delete(List<String> emails) {
+        Report report = new Report();
+        if (emails.isEmpty()) {
+            return report;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(THREADS, emails.size()));
+        try {
+            for (int from = 0; from < emails.size(); from += BATCH_SIZE) {
+                List<String> batch = emails.subList(from, Math.min(from + BATCH_SIZE, emails.size()));
+                List<Future<String>> results = new ArrayList<>();
+                for (String email : batch) {
+                    results.add(executor.submit(() -> deleteWithRetries(email)));
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    String error = await(results.get(i));
+                    if (error == null) {
+                        report.deleted++;
+                        Entry entry = PENDING.remove(batch.get(i));
+                        if (entry != null) {
+                            EMAILS.remove(entry.accessToken, batch.get(i));
+                        }
+                    } else {
+                        report.failures.put(batch.get(i), error);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Log.info(report::toString);
+        return report;
+    }
+
+    // удаление одного пользователя; null при успехе, иначе описание последней ошибки
+    private static String deleteWithRetries(String email) throws InterruptedException {
+        String error = null;
+        for (int attempt = 0; attempt <= RETRIES; attempt++) {
+            if (attempt > 0) {
+                TimeUnit.MILLISECONDS.sleep(200L << (attempt - 1));
+            }
+            try {
+                // токен мог обновиться, пока пользователь ждал удаления
+                String accessToken = UserAPI.TOKENS.getTokens(email) != null
+                        ? UserAPI.TOKENS.getAccessToken(email)
+                        : PENDING.get(email).accessToken;
+                ApiResponse response = ASYNC_USER_API.deleteUser(accessToken).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                // пользователя уже нет - это тоже успех
+                if (response.getStatusCode() == SC_ACCEPTED || response.getStatusCode() == SC_NOT_FOUND) {
+                    UserAPI.TOKENS.remove(email);
+                    return null;
+                }
+                error = String.format("статус-код %d: %s", response.getStatusCode(), response.asString());
+            } catch (ExecutionException | TimeoutException | RuntimeException e) {
+                error = e.toString();
+            }
+        }
+        return error;
+    }
+
+    private static String await(Future<String> result) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e.toString();
+        } catch (ExecutionException e) {
+            return e.getCause().toString();
+        }
+    }
+
+    private static final class Entry {
+        private final String accessToken;
+        private final String owner;
+
+        private Entry(String accessToken, String owner) {
+            this.accessToken = accessToken;
+            this.owner = owner;
+        }
+    }
+
+    // итог очистки
+    public static final class Report {
+        private int deleted;
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        public Map<String, String> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder info = new StringBuilder(String.format("\uD83D\uDD35 Очистка пользователей: удалено %d, ошибок %d.",
+                    deleted, failures.size()));
+            failures.forEach((email, error) -> info.append(String.format("%n\uD83D\uDFE1 ВНИМАНИЕ. Пользователь %s не удалён: %s", email, error)));
+            return info.toString();
+        }
+    }
+}
@@ -1,57 +1,84 @@
 package api;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
+import service.AsyncTransport;
+import service.IngredientCache;
+import service.IngredientsResponse;
+import service.JsonBodies;
+import service.Log;
 import service.Order;
+import service.OrderFeedReader;
+import service.OrderResponse;
+import service.OrderStore;
+import service.ResponseBodies;
+import service.StreamResponse;
 import service.User;
 
 import java.util.List;
 import java.util.Map;
 
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
 import static service.Utilities.*;
 
 public class OrderAPI {
 
+    // каталог ингредиентов почти не меняется, поэтому он общий на весь процесс
+    private static final IngredientCache INGREDIENT_CACHE = new IngredientCache();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> Log.info(INGREDIENT_CACHE.statsInfo())));
+    }
+
     @Step ("GET. Получение ответа на запрос списка ингредиентов и проверка ответа. Ручка api/ingredients.")
     public Response getIngredients () {
-        System.out.println("-> Запрос на получение списка ингредиентов.");
+        Log.info("-> Запрос на получение списка ингредиентов.");
 
-        Response response = REQUEST
+        return INGREDIENT_CACHE.get(this::requestIngredients);
+    }
+
+    // запрос каталога; при наличии закэшированной копии уходит условным запросом
+    private Response requestIngredients (Map<String, String> conditionalHeaders) {
+        Response response = request()
+                .headers(conditionalHeaders)
                 .when()
                 .get(GET_INGREDIENTS);
 
+        // каталог не изменился, проверять нечего
+        if (response.getStatusCode() == SC_NOT_MODIFIED) {
+            Log.info("\uD83D\uDFE2 Каталог ингредиентов не изменился, используется копия из кэша.\n");
+            return response;
+        }
+
         // печатаем информацию о запросе
         printResponseInfo(response, SC_OK, "");
 
         // дополнительная проверка того, что в ответе есть хотя бы один элемент с непустым id и именем
-        response.then()
-                .assertThat()
-                .body("success", equalTo(true),
-                        "data[0]._id", notNullValue(),
-                        "data[0].name", notNullValue()
-                );
+        IngredientsResponse.of(response).assertNotEmpty();
 
         return response;
     }
 
+    @Step ("Поиск ингредиента по айди в кэше каталога.")
+    public static IngredientsResponse.Ingredient getIngredientById (String ingredientId) {
+        return INGREDIENT_CACHE.findById(ingredientId);
+    }
+
     @Step ("Извлечение айди ингредиента по его индексу.")
     public static String getIngredientId (Response response, int index) {
-        String ingredientId = response.then().extract().body().path(String.format("data[%d]._id", index));
+        String ingredientId = IngredientsResponse.of(response).getIngredientId(index);
         return ingredientId;
     }
 
     @Step ("POST. Получение ответа на запрос создания заказа для существующего пользователя. Ручка api/orders.")
     public Response orderCreateForUser (Order order, User user, String accessToken) {
-        System.out.println(String.format("-> Формируется заказ для пользователя %s.", user.getName()));
+        Log.info(() -> String.format("-> Формируется заказ для пользователя %s.", user.getName()));
 
-        Response response = REQUEST
+        Response response = request()
                 .auth().oauth2(accessToken)
-                .body(order)
+                .body(JsonBodies.order(order))
                 .when()
                 .post(ORDER_CREATE);
 
@@ -61,11 +88,23 @@ public class OrderAPI {
         return response;
     }
 
+    @Step ("POST. Пакетное создание заказов для пользователя. Ручка api/orders.")
+    public OrderBatch.Result orderCreateBatch (List<Order> orders, String accessToken) {
+        return orderCreateBatch(orders, accessToken, OrderBatch.CONCURRENCY);
+    }
+
+    @Step ("POST. Пакетное создание заказов с заданным числом одновременных запросов. Ручка api/orders.")
+    public OrderBatch.Result orderCreateBatch (List<Order> orders, String accessToken, int concurrency) {
+        Log.info(() -> String.format("-> Формируется пакет из %d заказов, одновременно до %d запросов.", orders.size(), concurrency));
+
+        return OrderBatch.create(orders, accessToken, concurrency);
+    }
+
     @Step ("GET. Получение ответа на запрос списка всех заказов для авторизованного пользователя. Ручка api/orders.")
     public Response getUserOrderList (String accessToken) {
-        System.out.println("-> Формируется список заказов пользователя.");
+        Log.info("-> Формируется список заказов пользователя.");
 
-        Response response = REQUEST
+        Response response = request()
                 .auth().oauth2(accessToken)
                 .when()
                 .get(ORDER_CREATE);
@@ -78,23 +117,22 @@ public class OrderAPI {
 
     @Step ("Извлечение списка заказов пользователя.")
     public void extractAllUserOrders (Response response) {
-        System.out.println("-> Извлекается список заказов пользователя.");
-
-        // приводим к красивому виду
-        Map<String, Object> userOrderList = response.getBody().as(Map.class);
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String prettyUserOrderList = gson.toJson(userOrderList);
-
-        // выводим на экран
-        System.out.println(String.format("Заказы пользователя:%n%s%n", prettyUserOrderList));
+        Log.info("-> Извлекается список заказов пользователя.");
+
+        // приводим к красивому виду и выводим на экран, только если вывод включён
+        Log.info(() -> {
+            JsonElement userOrderList = JsonParser.parseString(ResponseBodies.asString(response));
+            String prettyUserOrderList = PRETTY_GSON.toJson(userOrderList);
+            return String.format("Заказы пользователя:%n%s%n", prettyUserOrderList);
+        });
     }
 
     @Step ("POST. Получение ответа на запрос создания заказа без создания пользователя. Ручка api/orders.")
     public Response orderCreateWithoutUser (Order order) {
-        System.out.println("-> Формируется заказ.");
+        Log.info("-> Формируется заказ.");
 
-        Response response = REQUEST
-                .body(order)
+        Response response = request()
+                .body(JsonBodies.order(order))
                 .when()
                 .post(ORDER_CREATE);
 
@@ -106,8 +144,8 @@ public class OrderAPI {
 
     @Step ("GET. Отправка запроса на получение списка всех заказов без авторизации. Ручка api/orders/all.")
     public Response getAllOrdersList () {
-        System.out.println("-> Происходит отправка запроса на получение всех заказов в базе данных.");
-        Response response = REQUEST
+        Log.info("-> Происходит отправка запроса на получение всех заказов в базе данных.");
+        Response response = request()
                 .when()
                 .get(ORDER_GET_ALL);
 
@@ -119,23 +157,50 @@ public class OrderAPI {
 
     @Step ("Извлечение нужного количества заказов из списка всех заказов базы данных.")
     public Response getRequiredListOfOrdersFromDB (Response response, int fromIndex, int toIndex) {
-        System.out.println(String.format("-> Извлекаются список заказов от индекса %d (включительно) до индекса %d (не включительно) из списка всех заказов в базе данных.", fromIndex, toIndex));
+        Log.info(() -> String.format("-> Извлекаются список заказов от индекса %d (включительно) до индекса %d (не включительно) из списка всех заказов в базе данных.", fromIndex, toIndex));
 
         // проверка нижней границы
         if (fromIndex<0) {
-            System.out.println("⚠\uFE0F Ошибка. Начальный индекс не может быть меньше нуля.");
+            Log.warn("⚠\uFE0F Ошибка. Начальный индекс не может быть меньше нуля.");
         }
 
-        // приводим к красивому виду
-        List<Map<String, Object>> allOrders = response.getBody().path("orders");
-        List<Map<String, Object>> requiredList = allOrders.subList(fromIndex, toIndex);
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        String allOrdersPrettyJson = gson.toJson(requiredList);
-
-        // выводим на экран
-        System.out.println(String.format("Запрошенный список заказов:%n%s%n", allOrdersPrettyJson));
+        // приводим к красивому виду и выводим на экран, только если вывод включён
+        Log.info(() -> {
+            List<OrderResponse.OrderData> allOrders = OrderResponse.of(response).getOrders();
+            List<OrderResponse.OrderData> requiredList = allOrders.subList(fromIndex, toIndex);
+            String allOrdersPrettyJson = PRETTY_GSON.toJson(requiredList);
+            return String.format("Запрошенный список заказов:%n%s%n", allOrdersPrettyJson);
+        });
 
         return response;
     }
 
+    @Step ("GET. Потоковое извлечение нужного количества заказов из ленты всех заказов. Ручка api/orders/all.")
+    public List<Map<String, Object>> streamRequiredListOfOrdersFromDB (int fromIndex, int toIndex) {
+        Log.info(() -> String.format("-> Потоково извлекаются заказы от индекса %d (включительно) до индекса %d (не включительно) из списка всех заказов в базе данных.", fromIndex, toIndex));
+
+        // лента не собирается в память целиком: разбираются только заказы из диапазона, остаток тела не читается
+        List<Map<String, Object>> requiredList;
+        try (StreamResponse response = AsyncTransport.stream(ORDER_GET_ALL, null).join()) {
+            if (response.getStatusCode() != SC_OK) {
+                throw new IllegalStateException(String.format("Лента заказов не получена, статус-код %d: %s",
+                        response.getStatusCode(), response.asString()));
+            }
+            requiredList = OrderFeedReader.read(response.body(), fromIndex, toIndex);
+        }
+
+        // приводим к красивому виду и выводим на экран, только если вывод включён
+        Log.info(() -> String.format("Запрошенный список заказов:%n%s%n", PRETTY_GSON.toJson(requiredList)));
+
+        return requiredList;
+    }
+
+    @Step ("Индексация заказов из ответов со списками заказов.")
+    public OrderStore indexOrders (Response... responses) {
+        OrderStore store = OrderStore.of(responses);
+        Log.info(() -> String.format("-> Проиндексировано заказов: %d.", store.size()));
+
+        return store;
+    }
+
 }
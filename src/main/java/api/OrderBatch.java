@@ -0,0 +1,191 @@
+package api;
+
+import service.ApiResponse;
+import service.Log;
+import service.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.apache.http.HttpStatus.SC_OK;
+
+// массовое создание заказов: запросы идут одновременно через пул соединений AsyncTransport,
+// число запросов в полёте ограничено, и отправка ждёт, пока освободится место
+public class OrderBatch {
+    // настройки по умолчанию, переопределяются через -D
+    public static final int CONCURRENCY = Integer.getInteger("orders.batch.concurrency", 16);
+    private static final long TIMEOUT_SECONDS = Long.getLong("orders.batch.timeoutSeconds", 300);
+
+    private static final AsyncOrderAPI ASYNC_ORDER_API = new AsyncOrderAPI();
+
+    private OrderBatch() {
+    }
+
+    // создание заказов; accessToken null - заказы без авторизации
+    public static Result create(List<Order> orders, String accessToken, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Число одновременных запросов должно быть больше нуля.");
+        }
+        AtomicReferenceArray<Item> items = new AtomicReferenceArray<>(orders.size());
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(orders.size());
+        long start = System.nanoTime();
+
+        try {
+            for (int i = 0; i < orders.size(); i++) {
+                // обратное давление: не больше concurrency неотвеченных запросов
+                inFlight.acquire();
+                int index = i;
+                send(orders.get(i), accessToken).whenComplete((response, error) -> {
+                    items.set(index, error == null ? Item.of(index, response) : Item.failed(index, error));
+                    inFlight.release();
+                    done.countDown();
+                });
+            }
+            if (!done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Пакет заказов не завершился за %d с.", TIMEOUT_SECONDS));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // заказы, на которые ответ не пришёл (таймаут или прерывание), тоже попадают в отчёт
+        List<Item> result = new ArrayList<>(orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            Item item = items.get(i);
+            result.add(item != null ? item : new Item(i, 0, null, "ответ не получен"));
+        }
+        Result batch = new Result(result, System.nanoTime() - start);
+        Log.info(batch::toString);
+        return batch;
+    }
+
+    private static CompletableFuture<ApiResponse> send(Order order, String accessToken) {
+        return accessToken == null
+                ? ASYNC_ORDER_API.orderCreateWithoutUser(order)
+                : ASYNC_ORDER_API.orderCreateForUser(order, accessToken);
+    }
+
+    // результат по одному заказу
+    public static final class Item {
+        private final int index;
+        private final int statusCode;
+        private final Integer orderNumber;
+        private final String error;
+
+        private Item(int index, int statusCode, Integer orderNumber, String error) {
+            this.index = index;
+            this.statusCode = statusCode;
+            this.orderNumber = orderNumber;
+            this.error = error;
+        }
+
+        private static Item of(int index, ApiResponse response) {
+            if (response.getStatusCode() != SC_OK) {
+                return new Item(index, response.getStatusCode(), null,
+                        String.format("статус-код %d: %s", response.getStatusCode(), response.asString()));
+            }
+            try {
+                Number number = response.path("order.number");
+                return number != null
+                        ? new Item(index, SC_OK, number.intValue(), null)
+                        : new Item(index, SC_OK, null, "в ответе нет номера заказа: " + response.asString());
+            } catch (RuntimeException e) {
+                return new Item(index, SC_OK, null, "ответ не разобран: " + e);
+            }
+        }
+
+        private static Item failed(int index, Throwable error) {
+            return new Item(index, 0, null, error.toString());
+        }
+
+        // позиция заказа в исходном списке
+        public int getIndex() {
+            return index;
+        }
+
+        // 0, если ответа не было
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public Integer getOrderNumber() {
+            return orderNumber;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    // итог пакета: результаты в порядке исходного списка и сводка по ошибкам
+    public static final class Result {
+        private final List<Item> items;
+        private final long durationNanos;
+
+        private Result(List<Item> items, long durationNanos) {
+            this.items = Collections.unmodifiableList(items);
+            this.durationNanos = durationNanos;
+        }
+
+        public List<Item> getItems() {
+            return items;
+        }
+
+        public List<Item> getFailures() {
+            List<Item> failures = new ArrayList<>();
+            for (Item item : items) {
+                if (!item.isSuccess()) {
+                    failures.add(item);
+                }
+            }
+            return failures;
+        }
+
+        public List<Integer> getOrderNumbers() {
+            List<Integer> numbers = new ArrayList<>(items.size());
+            for (Item item : items) {
+                if (item.isSuccess()) {
+                    numbers.add(item.getOrderNumber());
+                }
+            }
+            return numbers;
+        }
+
+        public int getSucceeded() {
+            return items.size() - getFailures().size();
+        }
+
+        public boolean isComplete() {
+            return getFailures().isEmpty();
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+
+        @Override
+        public String toString() {
+            List<Item> failures = getFailures();
+            double seconds = durationNanos / 1e9;
+            StringBuilder info = new StringBuilder(String.format(
+                    "\uD83D\uDD35 Пакет заказов: создано %d из %d, ошибок %d, %.1f с (%.1f заказов/с).",
+                    items.size() - failures.size(), items.size(), failures.size(), seconds,
+                    seconds > 0 ? items.size() / seconds : 0.0));
+            for (Item item : failures) {
+                info.append(String.format("%n\uD83D\uDFE1 ВНИМАНИЕ. Заказ #%d не создан: %s", item.getIndex(), item.getError()));
+            }
+            return info.toString();
+        }
+    }
+}
@@ -2,101 +2,151 @@ package api;
 
 import io.qameta.allure.Step;
 import io.restassured.response.Response;
+import service.ApiResponse;
+import service.AsyncTransport;
+import service.JsonBodies;
+import service.Log;
+import service.TokenManager;
 import service.User;
+import service.UserResponse;
 
 import static org.apache.http.HttpStatus.*;
 import static org.junit.Assert.assertNotNull;
 import static service.Utilities.*;
 
 public class UserAPI {
+    // токены пользователей по email; обновление идёт и из фонового потока, поэтому это простой запрос
+    // через AsyncTransport без шагов Allure, а не метод refreshToken
+    public static final TokenManager TOKENS = new TokenManager(refreshToken -> {
+        ApiResponse response = AsyncTransport.send("POST", TOKEN_REFRESH, JsonBodies.token(refreshToken), null).join();
+        if (response.getStatusCode() != SC_OK) {
+            throw new IllegalStateException(String.format("Токены не обновлены, статус-код %d.", response.getStatusCode()));
+        }
+        return new TokenManager.Tokens(AsyncUserAPI.getAccessToken(response), AsyncUserAPI.getRefreshToken(response));
+    });
 
     @Step ("POST. Получение ответа на запрос создания пользователя. Ручка api/auth/register.")
     public Response userCreating (User user) {
-        System.out.println("-> Создаётся пользователь.");
+        Log.info("-> Создаётся пользователь.");
 
-        Response response = REQUEST
-                .body(user)
+        Response response = request()
+                .body(JsonBodies.user(user))
                 .when()
                 .post(USER_CREATE);
 
         // печатаем информацию о запросе
         printResponseInfo(response, SC_OK, "");
 
+        // запоминаем токены созданного пользователя и регистрируем его для удаления
+        rememberTokens(user, response);
+        if (response.getStatusCode() == SC_OK && user.getEmail() != null) {
+            CleanupRegistry.register(user.getEmail(), UserResponse.of(response).getCleanAccessToken());
+        }
+
         return response;
     }
 
     @Step ("Извлечение accessToken после создания пользователя.")
     public String getAccessToken (Response response) {
-        System.out.println("-> Получение accessToken.");
-
-        String untrimmedAccessToken = response
-                .then()
-                .extract()
-                .body()
-                .path("accessToken")
-                .toString();
+        Log.info("-> Получение accessToken.");
+
+        String untrimmedAccessToken = UserResponse.of(response).getAccessToken();
+        // проверка наличия accessToken
+        assertNotNull(untrimmedAccessToken);
         String cleanAccessToken = untrimmedAccessToken.substring(7);
 
         // вывод сообщения в зависимости от исхода запроса
         if(!untrimmedAccessToken.isEmpty()) {
-            System.out.println(String.format("\uD83D\uDFE2 accessToken:%n%s%n", cleanAccessToken));
+            Log.info(() -> String.format("\uD83D\uDFE2 accessToken:%n%s%n", cleanAccessToken));
         } else {
-            System.out.println("\uD83D\uDFE1 ВНИМАНИЕ. accessToken не получен.\n");
+            Log.warn("\uD83D\uDFE1 ВНИМАНИЕ. accessToken не получен.\n");
         }
 
-        // проверка наличия accessToken
-        assertNotNull(untrimmedAccessToken);
-
         return cleanAccessToken;
     }
 
     @Step ("Извлечение refreshToken после создания пользователя.")
     public String getRefreshToken (Response response) {
-        System.out.println("-> Получение refreshToken.");
+        Log.info("-> Получение refreshToken.");
 
-        String refreshToken = response
-                .then()
-                .extract()
-                .body()
-                .path("refreshToken")
-                .toString();
+        String refreshToken = UserResponse.of(response).getRefreshToken();
+        // проверка наличия refreshToken
+        assertNotNull(refreshToken);
 
         // вывод сообщения в зависимости от исхода запроса
         if(!refreshToken.isEmpty()) {
-            System.out.println(String.format("\uD83D\uDFE2 refreshToken:%n%s%n", refreshToken));
+            Log.info(() -> String.format("\uD83D\uDFE2 refreshToken:%n%s%n", refreshToken));
         } else {
-            System.out.println("\uD83D\uDFE1 ВНИМАНИЕ. refreshToken не получен.\n");
+            Log.warn("\uD83D\uDFE1 ВНИМАНИЕ. refreshToken не получен.\n");
         }
 
-        // проверка наличия refreshToken
-        assertNotNull(refreshToken);
-
         return refreshToken;
     }
 
     @Step ("POST. Получение ответа на запрос логина пользователя. Ручка api/auth/login.")
     public Response loginUser (User user) {
-        System.out.println("-> Выполняется вход пользователя в систему.");
+        Log.info("-> Выполняется вход пользователя в систему.");
 
-        Response response = REQUEST
-                .body(user)
+        Response response = request()
+                .body(JsonBodies.user(user))
                 .when()
                 .post(USER_LOGIN);
 
         // печатаем информацию о запросе
         printResponseInfo(response, SC_OK, "");
 
+        // запоминаем токены вошедшего пользователя
+        rememberTokens(user, response);
+
         return response;
     }
 
+    @Step ("POST. Обновление токенов пользователя. Ручка api/auth/token.")
+    public Response refreshToken (String refreshToken) {
+        Log.info("-> Обновляются токены пользователя.");
+
+        // задаём боди
+        byte[] body = JsonBodies.token(refreshToken);
+
+        Response response = request()
+                .body(body)
+                .when()
+                .post(TOKEN_REFRESH);
+
+        // печатаем информацию о запросе
+        printResponseInfo(response, SC_OK, "");
+
+        return response;
+    }
+
+    @Step ("Получение действующего accessToken пользователя из кэша токенов или через логин.")
+    public String getValidAccessToken (User user) {
+        String accessToken = TOKENS.getAccessToken(user.getEmail());
+        if (accessToken != null) {
+            return accessToken;
+        }
+        // токенов ещё нет - логинимся, loginUser сам положит их в кэш
+        Response response = loginUser(user);
+        response.then().assertThat().statusCode(SC_OK);
+        return TOKENS.getAccessToken(user.getEmail());
+    }
+
+    // сервисный метод сохранения токенов из успешного ответа на регистрацию или логин
+    private static void rememberTokens (User user, Response response) {
+        if (response.getStatusCode() == SC_OK && user.getEmail() != null) {
+            UserResponse tokens = UserResponse.of(response);
+            TOKENS.put(user.getEmail(), tokens.getCleanAccessToken(), tokens.getRefreshToken());
+        }
+    }
+
     @Step ("POST. Выход пользователя из системы с проверкой статус-кода и тела ответа. Ручка api/auth/logout.")
     public Response logoutUser (String refreshToken) {
-        System.out.println("-> Выполняется выход пользователя из системы.");
+        Log.info("-> Выполняется выход пользователя из системы.");
 
         // задаём боди
-        String body = String.format("{\"token\":\"%s\"}", refreshToken);
+        byte[] body = JsonBodies.token(refreshToken);
 
-        Response response = REQUEST
+        Response response = request()
                 .body(body)
                 .when()
                 .post(USER_LOGOUT);
@@ -109,45 +159,39 @@ public class UserAPI {
 
     @Step ("GET. Получение ответа на запрос данных пользователя, проверка статуса и ответа. Ручка api/auth/user.")
     public Response getUserData (User user, String accessToken) {
-        System.out.println("-> Получение пользовательских данных.");
+        Log.info("-> Получение пользовательских данных.");
 
-        Response response = REQUEST
+        Response response = request()
                 .auth().oauth2(accessToken)
                 .get(USER_DATA);
 
-        // извлекаем информацию из ответа
-        String otherInfo = extractUserData(response);
-
-        // печатаем информацию о запросе с данными пользователя
-        printResponseInfo(response, SC_OK, otherInfo);
+        // печатаем информацию о запросе с данными пользователя, данные извлекаются только при выводе
+        printResponseInfo(response, SC_OK, () -> extractUserData(response));
 
         return response;
     }
 
     @Step ("PATCH. Получение ответа на запрос изменения данных пользователя. Ручка api/auth/user.")
     public Response changeUserData (User user, String accessToken) {
-        System.out.println("-> Меняются данные пользователя.");
+        Log.info("-> Меняются данные пользователя.");
 
-        Response response = REQUEST
+        Response response = request()
                 .auth().oauth2(accessToken)
-                .body(user)
+                .body(JsonBodies.user(user))
                 .when()
                 .patch(USER_DATA);
 
-        // извлекаем информацию из ответа
-        String otherInfo = extractUserData(response);
-
-        // печатаем информацию о запросе с данными пользователя
-        printResponseInfo(response, SC_OK, otherInfo);
+        // печатаем информацию о запросе с данными пользователя, данные извлекаются только при выводе
+        printResponseInfo(response, SC_OK, () -> extractUserData(response));
 
         return response;
     }
 
     @Step ("DELETE. Удаления пользователя с проверкой статус-кода и тела ответа. Ручка api/auth/user.")
     public Response deleteUser (String accessToken) {
-        System.out.println("-> Удаляется пользователь.");
+        Log.info("-> Удаляется пользователь.");
 
-        Response response = REQUEST
+        Response response = request()
                 .auth().oauth2(accessToken)
                 .when()
                 .delete(USER_DELETE);
@@ -155,6 +199,12 @@ public class UserAPI {
         // печатаем информацию о запросе
         printResponseInfo(response, SC_ACCEPTED, "");
 
+        // токены удалённого пользователя больше не обновляем; токен находится и после фонового обновления
+        if (response.getStatusCode() == SC_ACCEPTED) {
+            TOKENS.removeByAccessToken(accessToken);
+            CleanupRegistry.forget(accessToken);
+        }
+
         return response;
     }
 
@@ -0,0 +1,228 @@
+package api;
+
+import io.qameta.allure.Step;
+import io.restassured.response.Response;
+import service.ApiResponse;
+import service.Log;
+import service.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_OK;
+
+// пул заранее зарегистрированных пользователей для тестов, которым нужен просто авторизованный пользователь
+public class UserPool {
+    // размер пула и время ожидания свободного пользователя, переопределяются через -D
+    public static final int SIZE = Integer.getInteger("users.pool.size", 4);
+    public static final long LEASE_TIMEOUT_SECONDS = Long.getLong("users.pool.leaseTimeoutSeconds", 60);
+
+    private final BlockingQueue<PooledUser> idle = new LinkedBlockingQueue<>();
+    private final Queue<PooledUser> all = new ConcurrentLinkedQueue<>();
+    private final AsyncUserAPI asyncUserAPI = new AsyncUserAPI();
+    private final UserAPI userAPI = new UserAPI();
+
+    private static volatile UserPool shared;
+
+    // общий пул создаётся при первом обращении и удаляет своих пользователей по окончании прогона
+    // (AllureListener) или, если слушателя нет, при остановке JVM; если пул не создался, следующее обращение пробует снова
+    public static UserPool shared() {
+        UserPool pool = shared;
+        if (pool == null) {
+            synchronized (UserPool.class) {
+                pool = shared;
+                if (pool == null) {
+                    pool = new UserPool(SIZE);
+                    Runtime.getRuntime().addShutdownHook(new Thread(UserPool::deleteShared));
+                    shared = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    // удаление пользователей общего пула; неудачные удаления попадают в лог, повторный вызов ничего не делает
+    public static void deleteShared() {
+        UserPool pool = shared;
+        if (pool == null) {
+            return;
+        }
+        for (ApiResponse response : pool.deleteAll()) {
+            if (response.getStatusCode() != SC_ACCEPTED) {
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Пользователь пула не удалён, статус-код %d: %s",
+                        response.getStatusCode(), response.asString()));
+            }
+        }
+    }
+
+    public UserPool(int size) {
+        Log.info(() -> String.format("-> Регистрируются %d пользователей для пула.", size));
+
+        // регистрируем всех пользователей параллельно
+        List<CompletableFuture<PooledUser>> registrations = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            User user = randomUser();
+            registrations.add(asyncUserAPI.userCreating(user)
+                    .thenApply(response -> toPooledUser(user, response)));
+        }
+        // дожидаемся всех регистраций, даже если какая-то не удалась
+        RuntimeException failure = null;
+        for (CompletableFuture<PooledUser> registration : registrations) {
+            try {
+                PooledUser pooledUser = registration.join();
+                all.add(pooledUser);
+                idle.add(pooledUser);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        // уже зарегистрированные пользователи не должны остаться в системе
+        if (failure != null) {
+            int registered = all.size();
+            deleteAll();
+            throw new IllegalStateException(String.format("Пул пользователей не создан: зарегистрировано %d из %d.",
+                    registered, size), failure);
+        }
+        Log.info(() -> String.format("\uD83D\uDFE2 Пул пользователей готов: %d.%n", all.size()));
+    }
+
+    @Step ("Получение пользователя из пула.")
+    public Lease lease() {
+        try {
+            PooledUser pooledUser = idle.poll(LEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (pooledUser == null) {
+                throw new IllegalStateException("Нет свободных пользователей в пуле.");
+            }
+            return new Lease(pooledUser, false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Step ("Создание отдельного пользователя, который не делится с другими тестами.")
+    public Lease fresh(User user) {
+        Response response = userAPI.userCreating(user);
+        response.then().assertThat().statusCode(SC_OK);
+        PooledUser pooledUser = new PooledUser(user.getEmail(), user.getPassword(), user.getName());
+        return new Lease(pooledUser, true);
+    }
+
+    public Lease fresh() {
+        return fresh(randomUser());
+    }
+
+    // возврат пользователя в пул: изменённый профиль возвращается к исходным данным
+    private void release(Lease lease) {
+        PooledUser pooledUser = lease.pooledUser;
+        if (lease.exclusive) {
+            userAPI.deleteUser(lease.getAccessToken());
+            return;
+        }
+        if (lease.dirty) {
+            userAPI.changeUserData(pooledUser.original(), lease.getAccessToken());
+        }
+        idle.add(pooledUser);
+    }
+
+    // удаление всех пользователей пула одним пакетом параллельных запросов; ответы - для проверки в тестах
+    public List<ApiResponse> deleteAll() {
+        List<CompletableFuture<ApiResponse>> deletions = new ArrayList<>();
+        PooledUser pooledUser;
+        while ((pooledUser = all.poll()) != null) {
+            String accessToken = UserAPI.TOKENS.getAccessToken(pooledUser.email);
+            UserAPI.TOKENS.remove(pooledUser.email);
+            if (accessToken != null) {
+                deletions.add(asyncUserAPI.deleteUser(accessToken));
+            }
+        }
+        CompletableFuture.allOf(deletions.toArray(new CompletableFuture<?>[0])).join();
+        Log.info(() -> String.format("\uD83D\uDFE2 Пользователи пула удалены: %d.", deletions.size()));
+
+        List<ApiResponse> responses = new ArrayList<>();
+        for (CompletableFuture<ApiResponse> deletion : deletions) {
+            responses.add(deletion.join());
+        }
+        return responses;
+    }
+
+    private static PooledUser toPooledUser(User user, ApiResponse response) {
+        if (response.getStatusCode() != SC_OK) {
+            throw new IllegalStateException(String.format("Пользователь пула не создан, статус-код %d: %s",
+                    response.getStatusCode(), response.asString()));
+        }
+        UserAPI.TOKENS.put(user.getEmail(), AsyncUserAPI.getAccessToken(response), AsyncUserAPI.getRefreshToken(response));
+        return new PooledUser(user.getEmail(), user.getPassword(), user.getName());
+    }
+
+    private static User randomUser() {
+        String id = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        return new User(String.format("pool-%s@stellar-test.ru", id), "pwd-" + id, "pool-" + id);
+    }
+
+    // исходные данные пользователя пула
+    private static final class PooledUser {
+        private final String email;
+        private final String password;
+        private final String name;
+
+        private PooledUser(String email, String password, String name) {
+            this.email = email;
+            this.password = password;
+            this.name = name;
+        }
+
+        private User original() {
+            return new User(email, password, name);
+        }
+    }
+
+    // выданный тесту пользователь; close() возвращает его в пул (или удаляет, если он отдельный)
+    public final class Lease implements AutoCloseable {
+        private final PooledUser pooledUser;
+        private final boolean exclusive;
+        private final User user;
+        private boolean dirty;
+        private boolean closed;
+
+        private Lease(PooledUser pooledUser, boolean exclusive) {
+            this.pooledUser = pooledUser;
+            this.exclusive = exclusive;
+            this.user = pooledUser.original();
+        }
+
+        // копия данных пользователя, её можно менять в тесте
+        public User getUser() {
+            return user;
+        }
+
+        public String getAccessToken() {
+            return UserAPI.TOKENS.getAccessToken(pooledUser.email);
+        }
+
+        // тест изменил профиль пользователя, при возврате его нужно восстановить
+        public void markDirty() {
+            dirty = true;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package load;
+
+import service.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+// генератор нагрузки из сценариев на методах UserAPI/OrderAPI.
+// Запуск против встроенной заглушки:
+// mvn -q compile exec:java -Dexec.mainClass=load.LoadDriver -Dstellar.stub=true -Dload.mode=open -Dload.rate=200
+//
+// -Dload.mode       closed (N виртуальных пользователей без пауз) или open (постоянная частота запуска сценариев)
+// -Dload.users      число виртуальных пользователей для closed, по умолчанию 10
+// -Dload.rate       сценариев в секунду для open, по умолчанию 50, от 1 до 1 000 000 000 (интервал не меньше 1 нс)
+// -Dload.maxInFlight предел одновременных сценариев для open, лишние запуски считаются пропущенными
+// -Dload.duration   длительность в секундах, по умолчанию 30
+// -Dload.drainSeconds сколько секунд после окончания ждать незавершённые сценарии, по умолчанию 60; остальные прерываются
+// -Dload.scenarios  веса сценариев, например full-flow:1,browse:3,anonymous-order:1
+// -Dreport.sample   выводить только каждый N-й успешный ответ (неуспешные - всегда), см. service.ReportSampler
+public class LoadDriver {
+    public static final long DRAIN_SECONDS = Long.getLong("load.drainSeconds", 60);
+
+    private final List<Scenario> scenarios;
+    private final long drainSeconds;
+    private final int[] cumulativeWeights;
+    private final LoadStats stepStats = new LoadStats();
+    private final LoadStats scenarioStats = new LoadStats();
+    private final LongAdder dropped = new LongAdder();
+    // сценарии, которые выполняются сейчас, и сценарии, прерванные после истечения drainSeconds
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder cutOff = new LongAdder();
+
+    public LoadDriver(List<Scenario> scenarios) {
+        this(scenarios, DRAIN_SECONDS);
+    }
+
+    LoadDriver(List<Scenario> scenarios, long drainSeconds) {
+        this.scenarios = scenarios;
+        this.drainSeconds = drainSeconds;
+        this.cumulativeWeights = new int[scenarios.size()];
+        int total = 0;
+        for (int i = 0; i < scenarios.size(); i++) {
+            total += scenarios.get(i).getWeight();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        // в нагрузочном прогоне не печатаем каждый запрос
+        if (System.getProperty("log.level") == null) {
+            System.setProperty("log.level", "WARN");
+        }
+        String mode = System.getProperty("load.mode", "closed");
+        long durationSeconds = Long.getLong("load.duration", 30);
+
+        LoadDriver driver = new LoadDriver(parseScenarios(System.getProperty("load.scenarios", "full-flow:1,browse:3,anonymous-order:1")));
+        long started = System.nanoTime();
+        if ("open".equals(mode)) {
+            driver.runOpen(Integer.getInteger("load.rate", 50), Integer.getInteger("load.maxInFlight", 1000), durationSeconds);
+        } else {
+            driver.runClosed(Integer.getInteger("load.users", 10), durationSeconds);
+        }
+        long elapsed = System.nanoTime() - started;
+
+        System.out.println(driver.stepStats.report("Шаги (ручки):", elapsed));
+        System.out.println(driver.scenarioStats.report("Сценарии:", elapsed));
+        System.out.println(String.format("Режим %s, длительность %.1f с, пропущено запусков: %d, прервано: %d.",
+                mode, elapsed / 1e9, driver.dropped.sum(), driver.cutOff.sum()));
+    }
+
+    public LoadStats getStepStats() {
+        return stepStats;
+    }
+
+    public LoadStats getScenarioStats() {
+        return scenarioStats;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getCutOff() {
+        return cutOff.sum();
+    }
+
+    // закрытая модель: каждый виртуальный пользователь запускает следующий сценарий сразу после предыдущего
+    public void runClosed(int users, long durationSeconds) throws InterruptedException {
+        if (users <= 0) {
+            throw new IllegalArgumentException(String.format("Число виртуальных пользователей должно быть больше нуля, задано %d.", users));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    runScenario(pick(), System.nanoTime());
+                }
+            });
+        }
+        finish(executor, durationSeconds + drainSeconds);
+    }
+
+    // открытая модель: сценарии запускаются с постоянной частотой независимо от скорости ответов
+    public void runOpen(int ratePerSecond, int maxInFlight, long durationSeconds) throws InterruptedException {
+        // при частоте больше 1e9 интервал округлился бы до нуля, и цикл запусков крутился бы без пауз
+        if (ratePerSecond <= 0 || ratePerSecond > TimeUnit.SECONDS.toNanos(1)) {
+            throw new IllegalArgumentException(String.format(
+                    "Частота запуска должна быть от 1 до %d сценариев в секунду, задано %d.", TimeUnit.SECONDS.toNanos(1), ratePerSecond));
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException(String.format("Предел одновременных сценариев должен быть больше нуля, задано %d.", maxInFlight));
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        AtomicInteger inFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool();
+
+        for (long intended = start; intended < deadline; intended += interval) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                dropped.increment();
+                continue;
+            }
+            // задержка сценария считается от запланированного момента запуска, а не от фактического
+            long scheduledAt = intended;
+            executor.submit(() -> {
+                try {
+                    runScenario(pick(), scheduledAt);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        finish(executor, drainSeconds);
+    }
+
+    // ожидание запущенных сценариев; не успевшие за отведённое время прерываются и считаются в getCutOff()
+    private void finish(ExecutorService executor, long timeoutSeconds) throws InterruptedException {
+        executor.shutdown();
+        if (executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+            return;
+        }
+        int interrupted = running.get() + executor.shutdownNow().size();
+        cutOff.add(interrupted);
+        Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Сценарии не завершились за %d с и прерваны: %d.",
+                timeoutSeconds, interrupted));
+    }
+
+    private void runScenario(Scenario scenario, long scheduledAt) {
+        running.incrementAndGet();
+        try {
+            runSteps(scenario, scheduledAt);
+        } finally {
+            running.decrementAndGet();
+        }
+    }
+
+    private void runSteps(Scenario scenario, long scheduledAt) {
+        Session session = new Session();
+        boolean success = true;
+        for (Step step : scenario.getSteps()) {
+            long stepStart = System.nanoTime();
+            try {
+                step.run(session);
+                stepStats.record(step.getName(), System.nanoTime() - stepStart, true);
+            } catch (Exception | AssertionError e) {
+                // RestAssured пробрасывает и проверяемые исключения (например, таймаут пула соединений),
+                // они тоже считаются ошибкой шага, а не обрывают поток виртуального пользователя
+                stepStats.record(step.getName(), System.nanoTime() - stepStart, false);
+                success = false;
+                break;
+            }
+        }
+        scenarioStats.record(scenario.getName(), System.nanoTime() - scheduledAt, success);
+    }
+
+    // случайный сценарий с учётом весов
+    private Scenario pick() {
+        int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return scenarios.get(i);
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+
+    // разбор строки вида "full-flow:1,browse:3"
+    static List<Scenario> parseScenarios(String spec) {
+        Map<String, Scenario> known = Scenarios.all();
+        List<Scenario> selected = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            Scenario scenario = known.get(parts[0]);
+            if (scenario == null) {
+                throw new IllegalArgumentException(String.format("Неизвестный сценарий \"%s\", доступны: %s.", parts[0], known.keySet()));
+            }
+            int weight = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            if (weight > 0) {
+                selected.add(scenario.withWeight(weight));
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("Не выбран ни один сценарий.");
+        }
+        return selected;
+    }
+}
@@ -0,0 +1,65 @@
+package load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// задержки и ошибки по шагам (ручкам) и сценариям
+public class LoadStats {
+    // задержки пишутся в микросекундах, всё дольше минуты считается минутой
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public void record(String name, long nanos, boolean success) {
+        Entry entry = entries.computeIfAbsent(name, key -> new Entry());
+        entry.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        if (!success) {
+            entry.errors.increment();
+        }
+    }
+
+    // число записей и ошибок по имени шага или сценария
+    public long count(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.latency.getTotalCount();
+    }
+
+    public long errors(String name) {
+        Entry entry = entries.get(name);
+        return entry == null ? 0 : entry.errors.sum();
+    }
+
+    // таблица: количество, ошибки, пропускная способность и перцентили в миллисекундах
+    public String report(String title, long durationNanos) {
+        double seconds = durationNanos / 1e9;
+        StringBuilder table = new StringBuilder(String.format("%n%s%n", title));
+        table.append(String.format("%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "name", "count", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms"));
+        entries.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(item -> {
+                    Histogram latency = item.getValue().latency.copy();
+                    table.append(String.format("%-24s %9d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                            item.getKey(), latency.getTotalCount(), item.getValue().errors.sum(),
+                            latency.getTotalCount() / seconds,
+                            millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                            millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                            millis(latency.getMaxValue())));
+                });
+        return table.toString();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class Entry {
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+    }
+}
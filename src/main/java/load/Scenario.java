@@ -0,0 +1,34 @@
+package load;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+// сценарий нагрузки: последовательность шагов и его вес при случайном выборе
+public class Scenario {
+    private final String name;
+    private final int weight;
+    private final List<Step> steps;
+
+    public Scenario(String name, int weight, Step... steps) {
+        this.name = name;
+        this.weight = weight;
+        this.steps = Collections.unmodifiableList(Arrays.asList(steps));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public List<Step> getSteps() {
+        return steps;
+    }
+
+    public Scenario withWeight(int newWeight) {
+        return new Scenario(name, newWeight, steps.toArray(new Step[0]));
+    }
+}
@@ -0,0 +1,75 @@
+package load;
+
+import api.OrderAPI;
+import api.UserAPI;
+import service.Order;
+import service.User;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_OK;
+
+// встроенные сценарии, собранные из методов UserAPI и OrderAPI
+public class Scenarios {
+    private static final UserAPI USER_API = new UserAPI();
+    private static final OrderAPI ORDER_API = new OrderAPI();
+
+    private Scenarios() {
+    }
+
+    // регистрация -> логин -> ингредиенты -> заказ -> список заказов -> удаление
+    public static Scenario fullFlow(int weight) {
+        return new Scenario("full-flow", weight,
+                new Step("register", SC_OK, session -> {
+                    session.setUser(randomUser());
+                    return USER_API.userCreating(session.getUser());
+                }),
+                new Step("login", SC_OK, session -> USER_API.loginUser(session.getUser()), (session, response) -> {
+                    session.setAccessToken(response.<String>path("accessToken").substring(7));
+                    session.setRefreshToken(response.path("refreshToken"));
+                }),
+                ingredients(),
+                new Step("orderCreateForUser", SC_OK, session -> ORDER_API.orderCreateForUser(
+                        new Order(Collections.singletonList(session.getIngredientId())), session.getUser(), session.getAccessToken())),
+                new Step("getUserOrderList", SC_OK, session -> ORDER_API.getUserOrderList(session.getAccessToken())),
+                new Step("deleteUser", SC_ACCEPTED, session -> USER_API.deleteUser(session.getAccessToken())));
+    }
+
+    // просмотр каталога и общей ленты заказов без авторизации
+    public static Scenario browse(int weight) {
+        return new Scenario("browse", weight,
+                ingredients(),
+                new Step("getAllOrdersList", SC_OK, session -> ORDER_API.getAllOrdersList()));
+    }
+
+    // заказ без авторизации
+    public static Scenario anonymousOrder(int weight) {
+        return new Scenario("anonymous-order", weight,
+                ingredients(),
+                new Step("orderCreateWithoutUser", SC_OK, session -> ORDER_API.orderCreateWithoutUser(
+                        new Order(Collections.singletonList(session.getIngredientId())))));
+    }
+
+    // все встроенные сценарии по имени
+    public static Map<String, Scenario> all() {
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        scenarios.put("full-flow", fullFlow(1));
+        scenarios.put("browse", browse(1));
+        scenarios.put("anonymous-order", anonymousOrder(1));
+        return scenarios;
+    }
+
+    private static Step ingredients() {
+        return new Step("getIngredients", SC_OK, session -> ORDER_API.getIngredients(),
+                (session, response) -> session.setIngredientId(OrderAPI.getIngredientId(response, 0)));
+    }
+
+    private static User randomUser() {
+        String id = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        return new User(String.format("load-%s@stellar-test.ru", id), "pwd-" + id, "load-" + id);
+    }
+}
@@ -0,0 +1,46 @@
+package load;
+
+import io.restassured.response.Response;
+
+import java.util.function.Function;
+
+// шаг сценария: один вызов метода UserAPI/OrderAPI с проверкой статус-кода
+public class Step {
+    private final String name;
+    private final int expectedStatusCode;
+    private final Function<Session, Response> call;
+    private final Action after;
+
+    // действие после успешного вызова, например сохранение токена в сессию
+    @FunctionalInterface
+    public interface Action {
+        void apply(Session session, Response response);
+    }
+
+    public Step(String name, int expectedStatusCode, Function<Session, Response> call, Action after) {
+        this.name = name;
+        this.expectedStatusCode = expectedStatusCode;
+        this.call = call;
+        this.after = after;
+    }
+
+    public Step(String name, int expectedStatusCode, Function<Session, Response> call) {
+        this(name, expectedStatusCode, call, (session, response) -> { });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // выполнение шага; неожиданный статус-код считается ошибкой и прерывает сценарий
+    public void run(Session session) {
+        Response response = call.apply(session);
+        // тело, которое никто не прочитал, держит соединение пула, поэтому дочитываем его сразу
+        response.asByteArray();
+        if (response.getStatusCode() != expectedStatusCode) {
+            throw new IllegalStateException(String.format("%s: ожидался статус-код %d, получен %d.",
+                    name, expectedStatusCode, response.getStatusCode()));
+        }
+        after.apply(session, response);
+    }
+}
@@ -0,0 +1,65 @@
+package runner;
+
+import api.UserPool;
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.FileSystemResultsWriter;
+import io.qameta.allure.junit4.AllureJunit4;
+import org.junit.runner.Result;
+import org.junit.runner.notification.RunListener;
+import service.AsyncResultsWriter;
+import service.Log;
+import service.ReportSampler;
+import service.SampledLifecycle;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// слушатель Allure для surefire: результаты тестов и шагов пишутся в фоне через AsyncResultsWriter,
+// -Dallure.results.async=false возвращает обычную запись в потоке теста
+@RunListener.ThreadSafe
+public class AllureListener extends AllureJunit4 {
+    private static final Path RESULTS_DIR = Paths.get(System.getProperty("allure.results.directory", "allure-results"));
+    private static final AsyncResultsWriter WRITER = AsyncResultsWriter.ENABLED
+            ? new AsyncResultsWriter(new FileSystemResultsWriter(RESULTS_DIR))
+            : null;
+    private static final AllureLifecycle LIFECYCLE = lifecycle();
+
+    public AllureListener() {
+        super(LIFECYCLE);
+    }
+
+    // шаги @Step берут жизненный цикл из Allure, поэтому он подменяется и там;
+    // при -Dreport.sample=N шаги записываются выборочно, см. ReportSampler
+    private static AllureLifecycle lifecycle() {
+        ReportSampler sampler = ReportSampler.shared();
+        if (WRITER == null && !sampler.isEnabled()) {
+            return Allure.getLifecycle();
+        }
+        AllureResultsWriter writer = WRITER != null ? WRITER : new FileSystemResultsWriter(RESULTS_DIR);
+        AllureLifecycle lifecycle = sampler.isEnabled() ? new SampledLifecycle(writer, sampler) : new AllureLifecycle(writer);
+        Allure.setLifecycle(lifecycle);
+        return lifecycle;
+    }
+
+    @Override
+    public void testRunFinished(Result result) {
+        super.testRunFinished(result);
+        // пользователи общего пула удаляются, пока JVM ещё работает, а не в хуке завершения
+        try {
+            UserPool.deleteShared();
+        } catch (RuntimeException e) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Пользователи пула не удалены: %s.", e));
+        }
+        if (WRITER == null) {
+            return;
+        }
+        try {
+            WRITER.close();
+        } catch (RuntimeException e) {
+            // недописанные результаты не должны ронять прогон, остальное допишет хук завершения
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Результаты Allure не дописаны: %s.", e));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package runner;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+
+// общая фикстура класса (зарегистрированный пользователь, токен, список ингредиентов): вычисляется один раз
+// на все строки параметров и потоки. Значение только читается - строка, которой нужно его менять, делает копию.
+// Ошибка создания тоже запоминается, чтобы строки не повторяли дорогую подготовку
+public final class Fixture<T> implements Supplier<T> {
+    private Supplier<T> factory;
+    private volatile boolean done;
+    private T value;
+    private Throwable error;
+
+    private Fixture(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    public static <T> Fixture<T> of(Supplier<T> factory) {
+        return new Fixture<>(factory);
+    }
+
+    @Override
+    public T get() {
+        if (!done) {
+            synchronized (this) {
+                if (!done) {
+                    try {
+                        value = factory.get();
+                    } catch (RuntimeException | AssertionError e) {
+                        error = e;
+                    }
+                    factory = null;
+                    done = true;
+                }
+            }
+        }
+        if (error != null) {
+            throw new IllegalStateException("Общая фикстура класса не создана: " + error, error);
+        }
+        return value;
+    }
+
+    // создана без ошибки; для @AfterClass, которому нечего убирать, если фикстура не понадобилась
+    public boolean isInitialized() {
+        return done && error == null;
+    }
+
+    // у класса есть статические фикстуры
+    static boolean isDeclaredIn(Class<?> testClass) {
+        for (Field field : testClass.getDeclaredFields()) {
+            if (isStaticFixture(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // создание всех статических фикстур класса до запуска строк; шаги попадают в текущий контекст Allure,
+    // раннер выполняет этот метод внутри фикстуры контейнера класса, см. FixtureContainer
+    static void initializeAll(Class<?> testClass) throws IllegalAccessException {
+        for (Field field : testClass.getDeclaredFields()) {
+            if (isStaticFixture(field)) {
+                field.setAccessible(true);
+                Fixture<?> fixture = (Fixture<?>) field.get(null);
+                if (fixture != null) {
+                    fixture.get();
+                }
+            }
+        }
+    }
+
+    private static boolean isStaticFixture(Field field) {
+        return Modifier.isStatic(field.getModifiers()) && Fixture.class.isAssignableFrom(field.getType());
+    }
+}
@@ -0,0 +1,63 @@
+package runner;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Stage;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResultContainer;
+import io.qameta.allure.util.ResultsUtils;
+import org.junit.runner.Description;
+import org.junit.runner.notification.RunListener;
+import org.junit.runners.model.Statement;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// контейнер Allure для общих фикстур класса: шаги, выполненные в prepare(), пишутся в его подготовку,
+// а тесты класса становятся его детьми - в отчёте эти шаги видны в разделе Set up каждого теста
+@RunListener.ThreadSafe
+final class FixtureContainer extends RunListener {
+    private final AllureLifecycle lifecycle;
+    private final Class<?> testClass;
+    private final String uuid = UUID.randomUUID().toString();
+    // тесты, начатые строками в разных потоках; в контейнер добавляются при закрытии
+    private final Queue<String> children = new ConcurrentLinkedQueue<>();
+
+    FixtureContainer(AllureLifecycle lifecycle, Class<?> testClass) {
+        this.lifecycle = lifecycle;
+        this.testClass = testClass;
+        lifecycle.startTestContainer(new TestResultContainer().setUuid(uuid).setName(testClass.getName()));
+    }
+
+    // подготовка выполняется как фикстура контейнера; её ошибка записывается в фикстуру и пробрасывается дальше
+    void prepare(String name, Statement fixtures) throws Throwable {
+        String fixtureUuid = UUID.randomUUID().toString();
+        lifecycle.startPrepareFixture(uuid, fixtureUuid, new FixtureResult().setName(name).setStage(Stage.RUNNING));
+        try {
+            fixtures.evaluate();
+            lifecycle.updateFixture(fixtureUuid, fixture -> fixture.setStatus(Status.PASSED));
+        } catch (Throwable e) {
+            lifecycle.updateFixture(fixtureUuid, fixture -> fixture
+                    .setStatus(ResultsUtils.getStatus(e).orElse(Status.BROKEN))
+                    .setStatusDetails(ResultsUtils.getStatusDetails(e).orElse(null)));
+            throw e;
+        } finally {
+            lifecycle.stopFixture(fixtureUuid);
+        }
+    }
+
+    // слушатель Allure уже начал тест в этом потоке, поэтому его uuid - текущий тест жизненного цикла
+    @Override
+    public void testStarted(Description description) {
+        if (description.getTestClass() == testClass) {
+            lifecycle.getCurrentTestCase().ifPresent(children::add);
+        }
+    }
+
+    void close() {
+        lifecycle.updateTestContainer(uuid, container -> container.getChildren().addAll(children));
+        lifecycle.stopTestContainer(uuid);
+        lifecycle.writeTestContainer(uuid);
+    }
+}
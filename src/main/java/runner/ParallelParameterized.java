@@ -0,0 +1,81 @@
+package runner;
+
+import api.CleanupRegistry;
+import io.qameta.allure.Allure;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.Statement;
+
+// параметризованный раннер: строки параметров выполняются одновременно в ограниченном пуле,
+// методы одной строки - по очереди в её потоке, поэтому шаги Allure попадают в свою строку.
+// Статические поля Fixture создаются один раз до запуска строк (после @BeforeClass) внутри фикстуры
+// контейнера Allure, поэтому их шаги видны в разделе Set up каждой строки
+public class ParallelParameterized extends Parameterized {
+    // сколько строк выполняются одновременно, -Dtests.parallel.rows=1 - по очереди
+    public static final int ROWS = Integer.getInteger("tests.parallel.rows", 4);
+
+    // контейнер фикстур на время прогона класса, null - у класса нет статических фикстур
+    private volatile FixtureContainer fixtures;
+
+    public ParallelParameterized(Class<?> testClass) throws Throwable {
+        super(testClass);
+        // строки, которые делят одни и те же данные на сервере, по-прежнему можно пометить @Sequential
+        int rows = testClass.isAnnotationPresent(Sequential.class) ? 1 : ROWS;
+        setScheduler(new VirtualThreadScheduler(testClass.getSimpleName(), rows));
+    }
+
+    // класс без изменений с зелёным прошлым прогоном не запускается, см. RunCache;
+    // пользователи из @BeforeClass/@AfterClass, фикстур и строк регистрируются в CleanupRegistry на этот класс
+    @Override
+    public void run(RunNotifier notifier) {
+        Class<?> testClass = getTestClass().getJavaClass();
+        RunCache.run(testClass, notifier, () -> CleanupRegistry.runAs(testClass, () -> runClass(testClass, notifier)));
+    }
+
+    // строка выполняется в потоке планировщика, владелец задаётся и там
+    @Override
+    protected void runChild(Runner runner, RunNotifier notifier) {
+        CleanupRegistry.runAs(getTestClass().getJavaClass(), () -> super.runChild(runner, notifier));
+    }
+
+    // контейнер фикстур Allure открывается только для классов со статическими Fixture
+    private void runClass(Class<?> testClass, RunNotifier notifier) {
+        if (!Fixture.isDeclaredIn(testClass)) {
+            super.run(notifier);
+            return;
+        }
+        FixtureContainer container = new FixtureContainer(Allure.getLifecycle(), testClass);
+        fixtures = container;
+        notifier.addListener(container);
+        try {
+            super.run(notifier);
+        } finally {
+            notifier.removeListener(container);
+            fixtures = null;
+            container.close();
+        }
+    }
+
+    @Override
+    protected Statement withBeforeClasses(Statement statement) {
+        return super.withBeforeClasses(new Statement() {
+            @Override
+            public void evaluate() throws Throwable {
+                Class<?> testClass = getTestClass().getJavaClass();
+                FixtureContainer container = fixtures;
+                if (container != null) {
+                    container.prepare("Общие фикстуры " + testClass.getSimpleName(), new Statement() {
+                        @Override
+                        public void evaluate() throws Throwable {
+                            Fixture.initializeAll(testClass);
+                        }
+                    });
+                } else {
+                    Fixture.initializeAll(testClass);
+                }
+                statement.evaluate();
+            }
+        });
+    }
+}
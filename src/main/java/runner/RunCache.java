@@ -0,0 +1,334 @@
+package runner;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import service.Log;
+import service.Utilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// кэш прогона: класс не запускается, если не изменились ни его байткод вместе со всем кодом проекта, до которого
+// он дотягивается (api, service, ...), ни ответ пробы бэкенда, а в target/allure-results его последний прогон
+// целиком зелёный - старые результаты остаются в отчёте. Упавшие классы всегда перезапускаются.
+// Кэш для локальной отладки и по умолчанию выключен, чтобы обычный прогон и CI запускали все тесты:
+// -Druncache.enabled=true - включить, -Druncache.force=true - полный прогон с обновлением кэша
+public final class RunCache {
+    public static final boolean ENABLED = Boolean.getBoolean("runcache.enabled");
+    public static final boolean FORCE = Boolean.getBoolean("runcache.force");
+    // ручка пробы бэкенда, пустое значение отключает пробу
+    public static final String PROBE_PATH = System.getProperty("runcache.probe", "api/ingredients");
+    private static final Path CACHE_FILE = Paths.get(System.getProperty("runcache.file", "target/run-cache.properties"));
+    private static final Path RESULTS_DIR = Paths.get(System.getProperty("allure.results.directory", "target/allure-results"));
+
+    private static final Gson GSON = new Gson();
+    // ссылки на классы в дескрипторах и сигнатурах: Lservice/User;
+    private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([\\w/$]+);");
+
+    private static volatile String probe;
+    private static volatile Map<String, Boolean> lastOutcomes;
+
+    private RunCache() {
+    }
+
+    // запуск класса через кэш: body - обычный запуск раннера
+    static void run(Class<?> testClass, RunNotifier notifier, Runnable body) {
+        if (!ENABLED) {
+            body.run();
+            return;
+        }
+        String key;
+        try {
+            key = key(testClass);
+        } catch (IOException | RuntimeException e) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Отпечаток %s не посчитан, класс запускается: %s.", testClass.getName(), e));
+            body.run();
+            return;
+        }
+        if (!FORCE && key.equals(load().getProperty(testClass.getName()))
+                && Boolean.TRUE.equals(lastOutcomes().get(testClass.getName()))) {
+            Log.info(() -> String.format("\uD83D\uDD35 %s не изменился, результат взят из прошлого прогона (-Druncache.force=true - запустить).",
+                    testClass.getSimpleName()));
+            return;
+        }
+
+        // падения считаются только для своего класса: surefire может гонять классы одновременно
+        AtomicBoolean failed = new AtomicBoolean();
+        RunListener listener = new RunListener() {
+            @Override
+            public void testFailure(Failure failure) {
+                if (testClass.getName().equals(failure.getDescription().getClassName())) {
+                    failed.set(true);
+                }
+            }
+        };
+        notifier.addListener(listener);
+        try {
+            body.run();
+        } finally {
+            notifier.removeListener(listener);
+            store(testClass.getName(), failed.get() ? null : key);
+        }
+    }
+
+    // ключ класса: отпечаток кода, адрес бэкенда и ответ пробы
+    static String key(Class<?> testClass) throws IOException {
+        String backend = Boolean.getBoolean("stellar.stub") ? "stub" : System.getProperty("stellar.baseUri", "default");
+        return fingerprint(testClass) + "|" + backend + "|" + probe();
+    }
+
+    // SHA-256 по байткоду класса и всех достижимых из него классов проекта (загруженных из каталога, а не из jar)
+    static String fingerprint(Class<?> testClass) throws IOException {
+        ClassLoader loader = testClass.getClassLoader();
+        Map<String, byte[]> reached = new TreeMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(testClass.getName().replace('.', '/'));
+        while (!queue.isEmpty()) {
+            String name = queue.poll();
+            if (reached.containsKey(name)) {
+                continue;
+            }
+            URL resource = loader.getResource(name + ".class");
+            if (resource == null || !"file".equals(resource.getProtocol())) {
+                continue;
+            }
+            byte[] bytes;
+            try (InputStream in = resource.openStream()) {
+                bytes = in.readAllBytes();
+            }
+            reached.put(name, bytes);
+            queue.addAll(referencedClasses(bytes));
+        }
+
+        MessageDigest digest = sha256();
+        for (Map.Entry<String, byte[]> entry : reached.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update(entry.getValue());
+        }
+        return hex(digest.digest());
+    }
+
+    // имена классов из пула констант: записи Class и дескрипторы в строках UTF-8
+    static Set<String> referencedClasses(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        in.skipBytes(8);
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        int[] classNames = new int[count];
+        int classCount = 0;
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    break;
+                case 7:
+                    classNames[classCount++] = in.readUnsignedShort();
+                    break;
+                case 8: case 16: case 19: case 20:
+                    in.skipBytes(2);
+                    break;
+                case 15:
+                    in.skipBytes(3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.skipBytes(4);
+                    break;
+                case 5: case 6:
+                    in.skipBytes(8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Неизвестная запись пула констант: " + tag);
+            }
+        }
+
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < classCount; i++) {
+            String name = utf8[classNames[i]];
+            if (name != null) {
+                names.add(name.startsWith("[") ? name.replaceAll("^\\[+L?|;$", "") : name);
+            }
+        }
+        for (String value : utf8) {
+            if (value != null && value.indexOf(';') > 0) {
+                Matcher matcher = DESCRIPTOR_CLASS.matcher(value);
+                while (matcher.find()) {
+                    names.add(matcher.group(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    // ответ пробы один на весь прогон: статус-код и ETag либо хэш тела
+    private static String probe() {
+        String current = probe;
+        if (current == null) {
+            synchronized (RunCache.class) {
+                current = probe;
+                if (current == null) {
+                    current = PROBE_PATH.isEmpty() ? "off" : request(PROBE_PATH);
+                    probe = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static String request(String path) {
+        try {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(Utilities.BASE_URI + path))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            String version = response.headers().firstValue("ETag").orElseGet(() -> hex(sha256().digest(response.body())));
+            return response.statusCode() + ":" + version;
+        } catch (IOException e) {
+            return "недоступен";
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "недоступен";
+        }
+    }
+
+    // последний исход каждого класса по файлам *-result.json: true, если последний результат каждого теста - passed
+    private static Map<String, Boolean> lastOutcomes() {
+        Map<String, Boolean> current = lastOutcomes;
+        if (current != null) {
+            return current;
+        }
+        synchronized (RunCache.class) {
+            if (lastOutcomes == null) {
+                lastOutcomes = readOutcomes();
+            }
+            return lastOutcomes;
+        }
+    }
+
+    private static Map<String, Boolean> readOutcomes() {
+        // полное имя теста -> (время окончания, статус, класс) самого свежего результата
+        Map<String, Object[]> latest = new HashMap<>();
+        if (Files.isDirectory(RESULTS_DIR)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(RESULTS_DIR, "*-result.json")) {
+                for (Path file : files) {
+                    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        JsonObject result = GSON.fromJson(reader, JsonObject.class);
+                        String testClass = label(result, "testClass");
+                        if (testClass == null || !result.has("fullName") || !result.has("stop")) {
+                            continue;
+                        }
+                        long stop = result.get("stop").getAsLong();
+                        Object[] previous = latest.get(result.get("fullName").getAsString());
+                        if (previous == null || (long) previous[0] < stop) {
+                            latest.put(result.get("fullName").getAsString(),
+                                    new Object[] {stop, result.has("status") ? result.get("status").getAsString() : "", testClass});
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        // недописанный или чужой файл просто не учитывается
+                    }
+                }
+            } catch (IOException e) {
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Результаты Allure не прочитаны: %s.", e));
+            }
+        }
+        Map<String, Boolean> outcomes = new HashMap<>();
+        for (Object[] result : latest.values()) {
+            outcomes.merge((String) result[2], "passed".equals(result[1]), Boolean::logicalAnd);
+        }
+        return outcomes;
+    }
+
+    private static String label(JsonObject result, String name) {
+        if (!result.has("labels")) {
+            return null;
+        }
+        for (JsonElement label : result.getAsJsonArray("labels")) {
+            JsonObject object = label.getAsJsonObject();
+            if (name.equals(object.get("name").getAsString())) {
+                return object.get("value").getAsString();
+            }
+        }
+        return null;
+    }
+
+    private static Properties load() {
+        Properties cache = new Properties();
+        if (Files.exists(CACHE_FILE)) {
+            try (Reader reader = Files.newBufferedReader(CACHE_FILE, StandardCharsets.UTF_8)) {
+                cache.load(reader);
+            } catch (IOException e) {
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Кэш прогона не прочитан: %s.", e));
+            }
+        }
+        return cache;
+    }
+
+    // key null - класс упал, запись удаляется
+    private static synchronized void store(String testClass, String key) {
+        Properties cache = load();
+        if (key == null) {
+            cache.remove(testClass);
+        } else {
+            cache.setProperty(testClass, key);
+        }
+        try {
+            Files.createDirectories(CACHE_FILE.toAbsolutePath().getParent());
+            try (Writer writer = Files.newBufferedWriter(CACHE_FILE, StandardCharsets.UTF_8)) {
+                cache.store(writer, "run cache: test class = fingerprint|backend|probe");
+            }
+        } catch (IOException e) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Кэш прогона не записан: %s.", e));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
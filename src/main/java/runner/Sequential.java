@@ -0,0 +1,13 @@
+package runner;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// класс, тесты которого делят общие данные (например, одного и того же пользователя),
+// выполняется на виртуальных потоках, но строго по одному тесту за раз
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Sequential {
+}
@@ -0,0 +1,33 @@
+package runner;
+
+import api.CleanupRegistry;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.InitializationError;
+
+// раннер, выполняющий тестовые методы класса на виртуальных потоках (при -Dtests.virtualThreads=true)
+public class VirtualThreadRunner extends BlockJUnit4ClassRunner {
+
+    public VirtualThreadRunner(Class<?> testClass) throws InitializationError {
+        super(testClass);
+        if (VirtualThreadScheduler.ENABLED) {
+            setScheduler(new VirtualThreadScheduler(testClass.getSimpleName(),
+                    testClass.isAnnotationPresent(Sequential.class)));
+        }
+    }
+
+    // класс без изменений с зелёным прошлым прогоном не запускается, см. RunCache;
+    // пользователи из @BeforeClass/@AfterClass и тестов регистрируются в CleanupRegistry на этот класс
+    @Override
+    public void run(RunNotifier notifier) {
+        Class<?> testClass = getTestClass().getJavaClass();
+        RunCache.run(testClass, notifier, () -> CleanupRegistry.runAs(testClass, () -> super.run(notifier)));
+    }
+
+    // тест может выполняться в потоке планировщика, владелец задаётся и там
+    @Override
+    protected void runChild(FrameworkMethod method, RunNotifier notifier) {
+        CleanupRegistry.runAs(getTestClass().getJavaClass(), () -> super.runChild(method, notifier));
+    }
+}
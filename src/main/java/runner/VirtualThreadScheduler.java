@@ -0,0 +1,112 @@
+package runner;
+
+import org.junit.runners.model.RunnerScheduler;
+import service.Log;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// планировщик JUnit, запускающий каждый дочерний тест (или строку параметров) в своём виртуальном потоке
+public class VirtualThreadScheduler implements RunnerScheduler {
+    // включается флагом -Dtests.virtualThreads=true (профиль java21)
+    public static final boolean ENABLED = Boolean.getBoolean("tests.virtualThreads");
+
+    // общая статистика прогона
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger PEAK = new AtomicInteger();
+    private static final AtomicLong TOTAL = new AtomicLong();
+    private static final long RUN_START = System.nanoTime();
+
+    // пул создаётся при первом планировщике: без -Dtests.virtualThreads его берёт только ParallelParameterized
+    private static final class Executor {
+        private static final ExecutorService INSTANCE = createExecutor();
+
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> Log.info(() -> String.format(
+                    "\uD83D\uDD35 Параллельный запуск: выполнено тестов %d, пиковая параллельность %d, общее время %d мс.",
+                    TOTAL.get(), PEAK.get(), (System.nanoTime() - RUN_START) / 1_000_000))));
+        }
+    }
+
+    private final String name;
+    // null - без ограничения
+    private final Semaphore permits;
+    private final Queue<Future<?>> futures = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger localInFlight = new AtomicInteger();
+    private final AtomicInteger localPeak = new AtomicInteger();
+    private final long start = System.nanoTime();
+
+    public VirtualThreadScheduler(String name, boolean sequential) {
+        this(name, sequential ? 1 : 0);
+    }
+
+    // maxParallel - сколько дочерних тестов выполняются одновременно, 0 - без ограничения
+    public VirtualThreadScheduler(String name, int maxParallel) {
+        this.name = name;
+        this.permits = maxParallel > 0 ? new Semaphore(maxParallel, true) : null;
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+        futures.add(Executor.INSTANCE.submit(() -> {
+            acquire();
+            try {
+                updatePeak(localPeak, localInFlight.incrementAndGet());
+                updatePeak(PEAK, IN_FLIGHT.incrementAndGet());
+                childStatement.run();
+            } finally {
+                IN_FLIGHT.decrementAndGet();
+                localInFlight.decrementAndGet();
+                TOTAL.incrementAndGet();
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void finished() {
+        // ждём завершения всех дочерних тестов, ошибки уже переданы в RunNotifier
+        Future<?> future;
+        while ((future = futures.poll()) != null) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        Log.info(() -> String.format("\uD83D\uDD35 %s: пиковая параллельность %d, время %d мс.",
+                name, localPeak.get(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    private void acquire() {
+        if (permits != null) {
+            permits.acquireUninterruptibly();
+        }
+    }
+
+    private static void updatePeak(AtomicInteger peak, int current) {
+        peak.accumulateAndGet(current, Math::max);
+    }
+
+    // виртуальные потоки доступны с Java 21, на более старой JVM берётся обычный пул
+    private static ExecutorService createExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            Log.warn("\uD83D\uDFE1 ВНИМАНИЕ. Виртуальные потоки недоступны, тесты выполняются в пуле обычных потоков.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package service;
+
+import io.restassured.path.json.JsonPath;
+
+import java.net.http.HttpHeaders;
+
+// ответ асинхронного клиента: статус, заголовки и тело, json разбирается один раз и только по запросу
+public class ApiResponse {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final String body;
+    private volatile JsonPath jsonPath;
+
+    public ApiResponse(int statusCode, HttpHeaders headers, String body) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public String asString() {
+        return body;
+    }
+
+    // извлечение значения по пути, синтаксис тот же, что у response.path(...) в RestAssured
+    public <T> T path(String path) {
+        JsonPath parsed = jsonPath;
+        if (parsed == null) {
+            parsed = JsonPath.from(body);
+            jsonPath = parsed;
+        }
+        return parsed.get(path);
+    }
+}
@@ -0,0 +1,176 @@
+package service;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// запись результатов Allure в фоне: поток теста только ставит результат в очередь, сериализацию и файлы
+// берёт на себя фоновый поток, забирая очередь пачками. Когда очередь полна или писатель уже закрыт
+// (например, результаты из хуков завершения JVM), запись идёт сразу в потоке вызова
+public class AsyncResultsWriter implements AllureResultsWriter, AutoCloseable {
+    // выключатель и размеры, переопределяются через -D
+    public static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("allure.results.async", "true"));
+    public static final int BATCH_SIZE = Integer.getInteger("allure.results.batch", 64);
+    public static final int QUEUE_CAPACITY = Integer.getInteger("allure.results.queue", 10_000);
+
+    private final AllureResultsWriter delegate;
+    private final int batchSize;
+    private final BlockingQueue<Runnable> queue;
+    private final Thread flusher;
+    private volatile boolean closed;
+
+    // сколько времени запись занимает в потоке теста и сколько в фоне
+    private final LongAdder tests = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder callerNanos = new LongAdder();
+    private final LongAdder backgroundNanos = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public AsyncResultsWriter(AllureResultsWriter delegate) {
+        this(delegate, BATCH_SIZE, QUEUE_CAPACITY);
+    }
+
+    AsyncResultsWriter(AllureResultsWriter delegate, int batchSize, int queueCapacity) {
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.flusher = new Thread(this::drain, "allure-results-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close));
+    }
+
+    // результат теста после writeTestCase больше не меняется, поэтому сериализуется позже
+    @Override
+    public void write(TestResult testResult) {
+        tests.increment();
+        submit(() -> delegate.write(testResult));
+    }
+
+    @Override
+    public void write(TestResultContainer testResultContainer) {
+        submit(() -> delegate.write(testResultContainer));
+    }
+
+    // поток вложения закрывается вызывающим, поэтому читается сразу
+    @Override
+    public void write(String source, InputStream attachment) {
+        long start = System.nanoTime();
+        byte[] bytes;
+        try {
+            bytes = attachment.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        callerNanos.add(System.nanoTime() - start);
+        submit(() -> delegate.write(source, new ByteArrayInputStream(bytes)));
+    }
+
+    private void submit(Runnable write) {
+        long start = System.nanoTime();
+        try {
+            if (!closed && queue.offer(write)) {
+                // писатель могли закрыть, пока ставили в очередь - тогда дописываем сами
+                if (!closed || !queue.remove(write)) {
+                    queued.increment();
+                    return;
+                }
+            }
+            write.run();
+            written.increment();
+        } finally {
+            callerNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private void drain() {
+        List<Runnable> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                Runnable first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                flush(batch);
+                return;
+            }
+        }
+    }
+
+    private void flush(List<Runnable> batch) {
+        long start = System.nanoTime();
+        for (Runnable write : batch) {
+            try {
+                write.run();
+                written.increment();
+            } catch (RuntimeException e) {
+                // один испорченный результат не должен терять остальные
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Результат Allure не записан: %s.", e));
+            }
+        }
+        backgroundNanos.add(System.nanoTime() - start);
+        batches.increment();
+        batch.clear();
+    }
+
+    // дописывает очередь и останавливает фоновый поток; дальнейшая запись идёт в потоке вызова
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // всё, что успели поставить в очередь после остановки фонового потока
+        List<Runnable> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            flush(rest);
+        }
+        if (tests.sum() > 0) {
+            Log.info(statsInfo());
+        }
+    }
+
+    // сколько записей ушло в фон и сколько времени на этом сэкономил поток теста
+    public long queued() {
+        return queued.sum();
+    }
+
+    public long written() {
+        return written.sum();
+    }
+
+    // сервисный метод формирования статистики записи
+    public String statsInfo() {
+        long count = tests.sum();
+        double savedMs = (backgroundNanos.sum() - callerNanos.sum()) / 1e6;
+        return String.format("\uD83D\uDD35 Запись результатов Allure: тестов %d, записей %d (в фоне %d, пачек %d); "
+                        + "в потоке теста %.1f мс, в фоне %.1f мс; сэкономлено %.1f мс, %.3f мс на тест.",
+                count, written.sum(), queued.sum(), batches.sum(), callerNanos.sum() / 1e6, backgroundNanos.sum() / 1e6,
+                savedMs, count == 0 ? 0.0 : savedMs / count);
+    }
+}
@@ -0,0 +1,112 @@
+package service;
+
+import com.google.gson.Gson;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static service.Utilities.BASE_URI;
+
+// неблокирующий транспорт на java.net.http.HttpClient для AsyncUserAPI и AsyncOrderAPI
+public class AsyncTransport {
+    private static final Gson GSON = new Gson();
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(HttpTransport.CONNECT_TIMEOUT_MS))
+            .build();
+
+    private AsyncTransport() {
+    }
+
+    // отправка запроса без ожидания ответа; body сериализуется в json, строка и байты уходят как есть.
+    // Временные сбои повторяет Resilience, каждая попытка ждёт разрешения RateLimiter,
+    // тело сериализуется один раз на все попытки
+    public static CompletableFuture<ApiResponse> send(String method, String path, Object body, String accessToken) {
+        return send(BASE_URI, method, path, body, accessToken);
+    }
+
+    // то же в другой адрес, например в отдельную заглушку теста
+    public static CompletableFuture<ApiResponse> send(String baseUri, String method, String path, Object body, String accessToken) {
+        HttpRequest request = request(baseUri, method, path, body, accessToken);
+        String endpoint = Utilities.endpoint(path);
+        return Resilience.shared().executeAsync(method, endpoint,
+                () -> RateLimiter.shared().executeAsync(endpoint,
+                        () -> CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                                .thenApply(response -> new ApiResponse(response.statusCode(), response.headers(), response.body())),
+                        ApiResponse::getStatusCode,
+                        response -> response.getHeaders().firstValue("Retry-After").orElse(null)),
+                ApiResponse::getStatusCode);
+    }
+
+    private static HttpRequest request(String baseUri, String method, String path, Object body, String accessToken) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUri + path))
+                .timeout(Duration.ofMillis(HttpTransport.READ_TIMEOUT_MS))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .method(method, publisher(body));
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return builder.build();
+    }
+
+    // User и Order пишутся без рефлексии через JsonBodies, остальное - через Gson
+    private static HttpRequest.BodyPublisher publisher(Object body) {
+        if (body == null) {
+            return HttpRequest.BodyPublishers.noBody();
+        }
+        if (body instanceof byte[]) {
+            return HttpRequest.BodyPublishers.ofByteArray((byte[]) body);
+        }
+        if (body instanceof String) {
+            return HttpRequest.BodyPublishers.ofString((String) body);
+        }
+        if (body instanceof User) {
+            return HttpRequest.BodyPublishers.ofByteArray(JsonBodies.user((User) body));
+        }
+        if (body instanceof Order) {
+            return HttpRequest.BodyPublishers.ofByteArray(JsonBodies.order((Order) body));
+        }
+        return HttpRequest.BodyPublishers.ofString(GSON.toJson(body));
+    }
+
+    // GET-запрос, тело которого читается потоком по мере поступления, а не целиком в память; путь тот же, что у send:
+    // повторы Resilience, разрешения RateLimiter и замер в LatencyMetrics (время до заголовков сразу, полное - при close).
+    // Тело ответа с ошибкой небольшое и читается сразу, чтобы отброшенная перед повтором попытка не держала соединение
+    public static CompletableFuture<StreamResponse> stream(String path, String accessToken) {
+        HttpRequest request = request(BASE_URI, "GET", path, null, accessToken);
+        String endpoint = Utilities.endpoint(path);
+        String latencyEndpoint = "GET " + endpoint + " (stream)";
+        long start = System.nanoTime();
+        return Resilience.shared().executeAsync("GET", endpoint,
+                () -> RateLimiter.shared().executeAsync(endpoint,
+                        () -> CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                                .thenApply(response -> streamed(response, latencyEndpoint, start)),
+                        StreamResponse::getStatusCode,
+                        response -> response.getHeaders().firstValue("Retry-After").orElse(null)),
+                StreamResponse::getStatusCode)
+                .thenApply(response -> {
+                    LatencyMetrics.record(latencyEndpoint, LatencyMetrics.Phase.TTFB, System.nanoTime() - start);
+                    return response;
+                });
+    }
+
+    private static StreamResponse streamed(HttpResponse<InputStream> response, String latencyEndpoint, long start) {
+        InputStream body = response.body();
+        if (response.statusCode() / 100 != 2) {
+            try (InputStream error = body) {
+                body = new ByteArrayInputStream(error.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new StreamResponse(response.statusCode(), response.headers(), body, latencyEndpoint, start);
+    }
+}
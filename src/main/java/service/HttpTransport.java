@@ -0,0 +1,167 @@
+package service;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ClientConnectionOperator;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.OperatedClientConnection;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.DefaultClientConnectionOperator;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.impl.conn.SystemDefaultDnsResolver;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.ExecutionContext;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.protocol.HttpRequestExecutor;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// общий пул keep-alive соединений, через который ходят все запросы UserAPI и OrderAPI
+@SuppressWarnings("deprecation") // RestAssured работает только с наследниками AbstractHttpClient
+public class HttpTransport {
+    // настройки пула, переопределяются через -D
+    public static final int MAX_TOTAL = Integer.getInteger("http.pool.maxTotal", 50);
+    public static final int MAX_PER_ROUTE = Integer.getInteger("http.pool.maxPerRoute", 20);
+    public static final int IDLE_SECONDS = Integer.getInteger("http.pool.idleSeconds", 30);
+    public static final int CONNECT_TIMEOUT_MS = Integer.getInteger("http.connectTimeoutMs", 5_000);
+    public static final int READ_TIMEOUT_MS = Integer.getInteger("http.readTimeoutMs", 15_000);
+
+    // счётчики новых и переиспользованных соединений
+    private static final LongAdder OPENED = new LongAdder();
+    private static final LongAdder REUSED = new LongAdder();
+
+    private static final PoolingClientConnectionManager CONNECTION_MANAGER = createConnectionManager();
+    private static final DefaultHttpClient CLIENT = createClient();
+
+    // конфиг RestAssured, в котором один и тот же клиент отдаётся на каждый запрос
+    public static final RestAssuredConfig CONFIG = RestAssuredConfig.config()
+            .httpClient(HttpClientConfig.httpClientConfig()
+                    .reuseHttpClientInstance()
+                    .httpClientFactory(() -> CLIENT));
+
+    static {
+        // фоновая очистка простаивающих и просроченных соединений
+        ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            CONNECTION_MANAGER.closeExpiredConnections();
+            CONNECTION_MANAGER.closeIdleConnections(IDLE_SECONDS, TimeUnit.SECONDS);
+        }, IDLE_SECONDS, IDLE_SECONDS, TimeUnit.SECONDS);
+
+        // статистика соединений в конце прогона
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> Log.info(connectionStatsInfo())));
+    }
+
+    private HttpTransport() {
+    }
+
+    private static PoolingClientConnectionManager createConnectionManager() {
+        // резолвер и оператор соединений с замером DNS и установки соединения (вместе с TLS) для LatencyMetrics
+        DnsResolver timedResolver = host -> {
+            long start = System.nanoTime();
+            try {
+                return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+            } finally {
+                LatencyMetrics.onDnsResolved(System.nanoTime() - start);
+            }
+        };
+        PoolingClientConnectionManager manager = new PoolingClientConnectionManager(SchemeRegistryFactory.createDefault(), timedResolver) {
+            @Override
+            protected ClientConnectionOperator createConnectionOperator(SchemeRegistry schemeRegistry) {
+                return new DefaultClientConnectionOperator(schemeRegistry, timedResolver) {
+                    @Override
+                    public void openConnection(OperatedClientConnection connection, HttpHost target, InetAddress local,
+                                               HttpContext context, HttpParams params) throws IOException {
+                        long start = System.nanoTime();
+                        try {
+                            super.openConnection(connection, target, local, context, params);
+                        } finally {
+                            LatencyMetrics.onConnectionOpened(System.nanoTime() - start);
+                        }
+                    }
+                };
+            }
+        };
+        manager.setMaxTotal(MAX_TOTAL);
+        manager.setDefaultMaxPerRoute(MAX_PER_ROUTE);
+        return manager;
+    }
+
+    private static DefaultHttpClient createClient() {
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, CONNECT_TIMEOUT_MS);
+        HttpConnectionParams.setSoTimeout(params, READ_TIMEOUT_MS);
+        HttpConnectionParams.setStaleCheckingEnabled(params, true);
+
+        DefaultHttpClient client = new DefaultHttpClient(CONNECTION_MANAGER, params) {
+            // время от начала отправки запроса до получения заголовков ответа (TTFB) для LatencyMetrics
+            @Override
+            protected HttpRequestExecutor createRequestExecutor() {
+                return new HttpRequestExecutor() {
+                    @Override
+                    public HttpResponse execute(HttpRequest request, HttpClientConnection connection, HttpContext context)
+                            throws IOException, HttpException {
+                        long start = System.nanoTime();
+                        try {
+                            return super.execute(request, connection, context);
+                        } finally {
+                            LatencyMetrics.onResponseHeaders(System.nanoTime() - start);
+                        }
+                    }
+                };
+            }
+        };
+
+        // если сервер не прислал Keep-Alive, держим соединение не дольше времени простоя пула
+        client.setKeepAliveStrategy((response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : TimeUnit.SECONDS.toMillis(IDLE_SECONDS);
+        });
+
+        // соединение без отправленных запросов - новое, иначе взято из пула
+        client.addRequestInterceptor((request, context) -> {
+            Object connection = context.getAttribute(ExecutionContext.HTTP_CONNECTION);
+            if (connection instanceof HttpConnection) {
+                if (((HttpConnection) connection).getMetrics().getRequestCount() == 0) {
+                    OPENED.increment();
+                } else {
+                    REUSED.increment();
+                }
+            }
+        });
+        return client;
+    }
+
+    public static long openedConnections() {
+        return OPENED.sum();
+    }
+
+    public static long reusedConnections() {
+        return REUSED.sum();
+    }
+
+    // сервисный метод формирования сводки по соединениям
+    public static String connectionStatsInfo() {
+        return String.format("\uD83D\uDD35 HTTP-соединения: открыто новых %d, переиспользовано %d.",
+                openedConnections(), reusedConnections());
+    }
+}
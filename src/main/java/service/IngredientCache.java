@@ -0,0 +1,159 @@
+package service;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
+
+// кэш каталога ингредиентов на весь процесс: TTL, условная перепроверка по ETag/Last-Modified и индекс по айди.
+// Response RestAssured не потокобезопасен, поэтому в кэше лежит отвязанная копия ответа, а каждый вызов
+// получает свой экземпляр поверх общего массива байт тела. Каталог разбирается один раз при загрузке:
+// IngredientsResponse.of(...) для любого выданного экземпляра возвращает тот же разобранный объект
+public class IngredientCache {
+    // время жизни каталога, 0 отключает кэш
+    public static final long TTL_SECONDS = Long.getLong("ingredients.cacheTtlSeconds", 300);
+
+    private final long ttlNanos;
+    private volatile Entry entry;
+
+    // счётчики обращений
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidations = new LongAdder();
+
+    public IngredientCache() {
+        this(TTL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public IngredientCache(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    // каталог из кэша; loader получает заголовки условного запроса и выполняет сам запрос
+    public Response get(Function<Map<String, String>, Response> loader) {
+        Entry current = entry;
+        if (current != null && current.isFresh()) {
+            hits.increment();
+            return current.copy();
+        }
+        synchronized (this) {
+            // каталог мог обновить другой поток, пока мы ждали блокировку
+            current = entry;
+            if (current != null && current.isFresh()) {
+                hits.increment();
+                return current.copy();
+            }
+
+            Response response = loader.apply(current == null ? Collections.emptyMap() : current.conditionalHeaders());
+            if (current != null && response.getStatusCode() == SC_NOT_MODIFIED) {
+                // каталог не изменился, продлеваем срок жизни старой записи
+                revalidations.increment();
+                entry = current.renewed(expiresAt());
+                return current.copy();
+            }
+
+            misses.increment();
+            if (response.getStatusCode() == SC_OK && ttlNanos > 0) {
+                entry = new Entry(response, expiresAt());
+            }
+            return response;
+        }
+    }
+
+    // ингредиент по айди из последнего загруженного каталога, null если не найден
+    public IngredientsResponse.Ingredient findById(String id) {
+        Entry current = entry;
+        return current == null ? null : current.index.get(id);
+    }
+
+    public void invalidate() {
+        entry = null;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long revalidations() {
+        return revalidations.sum();
+    }
+
+    // сервисный метод формирования сводки по кэшу
+    public String statsInfo() {
+        return String.format("\uD83D\uDD35 Кэш ингредиентов: попаданий %d, промахов %d, перепроверок без загрузки %d.",
+                hits(), misses(), revalidations());
+    }
+
+    private long expiresAt() {
+        return System.nanoTime() + ttlNanos;
+    }
+
+    private static final class Entry {
+        // копия ответа никому не отдаётся, из неё только собираются экземпляры для вызывающих
+        private final Response template;
+        private final Map<String, IngredientsResponse.Ingredient> index;
+        private final String eTag;
+        private final String lastModified;
+        private final long expiresAt;
+
+        private Entry(Response response, long expiresAt) {
+            this.template = new ResponseBuilder().clone(response).setBody(response.asByteArray()).build();
+            ResponseBodies.shareParsed(response, template);
+            this.eTag = response.getHeader("ETag");
+            this.lastModified = response.getHeader("Last-Modified");
+            this.expiresAt = expiresAt;
+
+            // разбор один раз на запись (обычно уже сделан проверкой ответа) и индекс айди -> ингредиент, чтобы не перебирать список
+            Map<String, IngredientsResponse.Ingredient> byId = new HashMap<>();
+            for (IngredientsResponse.Ingredient ingredient : IngredientsResponse.of(template).getData()) {
+                byId.put(ingredient.getId(), ingredient);
+            }
+            this.index = Collections.unmodifiableMap(byId);
+        }
+
+        private Entry(Entry source, long expiresAt) {
+            this.template = source.template;
+            this.index = source.index;
+            this.eTag = source.eTag;
+            this.lastModified = source.lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        private Response copy() {
+            Response copy = new ResponseBuilder().clone(template).build();
+            ResponseBodies.shareParsed(template, copy);
+            return copy;
+        }
+
+        private boolean isFresh() {
+            return System.nanoTime() - expiresAt < 0;
+        }
+
+        private Entry renewed(long expiresAt) {
+            return new Entry(this, expiresAt);
+        }
+
+        private Map<String, String> conditionalHeaders() {
+            Map<String, String> headers = new HashMap<>();
+            if (eTag != null) {
+                headers.put("If-None-Match", eTag);
+            }
+            if (lastModified != null) {
+                headers.put("If-Modified-Since", lastModified);
+            }
+            return headers;
+        }
+    }
+}
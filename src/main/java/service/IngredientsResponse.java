@@ -0,0 +1,48 @@
+package service;
+
+import com.google.gson.annotations.SerializedName;
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+// ответ ручки api/ingredients; экземпляр из IngredientCache общий для всех вызывающих, поэтому только для чтения
+@Getter
+public class IngredientsResponse extends TypedResponse {
+    private List<Ingredient> data;
+
+    public static IngredientsResponse of(Response response) {
+        return ResponseBodies.as(response, IngredientsResponse.class);
+    }
+
+    public List<Ingredient> getData() {
+        return data == null ? Collections.emptyList() : Collections.unmodifiableList(data);
+    }
+
+    // null, если ингредиента с таким индексом нет
+    public String getIngredientId(int index) {
+        return index >= 0 && index < getData().size() ? data.get(index).getId() : null;
+    }
+
+    // в каталоге есть хотя бы один элемент с непустым айди и именем
+    public void assertNotEmpty() {
+        assertSuccess(SC_OK, true);
+        assertFalse(describe("data"), getData().isEmpty());
+        assertNotNull(describe("data[0]._id"), data.get(0).getId());
+        assertNotNull(describe("data[0].name"), data.get(0).getName());
+    }
+
+    @Getter
+    public static class Ingredient {
+        @SerializedName("_id")
+        private String id;
+        private String name;
+        private String type;
+        private Integer price;
+    }
+}
@@ -0,0 +1,113 @@
+package service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// тела запросов User, Order и токена без рефлексии: поля пишутся напрямую в буфер из пула.
+// Как и Gson в RestAssured, поля со значением null не выводятся
+public class JsonBodies {
+    private static final int POOL_SIZE = Integer.getInteger("json.pool.size", 64);
+    private static final int BUFFER_SIZE = 512;
+    // буфер, выросший больше этого, в пул не возвращается, чтобы редкие большие тела не держали память
+    private static final int MAX_POOLED_SIZE = 64 * 1024;
+
+    // ячейки пула: взять - getAndSet(null), вернуть - compareAndSet в пустую, без блокировок и аллокаций
+    private static final AtomicReferenceArray<JsonBuffer> POOL = new AtomicReferenceArray<>(POOL_SIZE);
+
+    private JsonBodies() {
+    }
+
+    public static JsonBuffer acquire() {
+        int start = (int) (Thread.currentThread().getId() % POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            JsonBuffer buffer = POOL.getAndSet((start + i) % POOL_SIZE, null);
+            if (buffer != null) {
+                buffer.reset();
+                return buffer;
+            }
+        }
+        return new JsonBuffer(BUFFER_SIZE);
+    }
+
+    public static void release(JsonBuffer buffer) {
+        if (buffer.array().length > MAX_POOLED_SIZE) {
+            return;
+        }
+        int start = (int) (Thread.currentThread().getId() % POOL_SIZE);
+        for (int i = 0; i < POOL_SIZE; i++) {
+            if (POOL.compareAndSet((start + i) % POOL_SIZE, null, buffer)) {
+                return;
+            }
+        }
+    }
+
+    // готовые тела для RestAssured: запись в буфер из пула и одна точная копия
+    public static byte[] user(User user) {
+        JsonBuffer buffer = acquire();
+        try {
+            return writeUser(user, buffer).toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    public static byte[] order(Order order) {
+        JsonBuffer buffer = acquire();
+        try {
+            return writeOrder(order, buffer).toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    // тело api/auth/logout и api/auth/token
+    public static byte[] token(String refreshToken) {
+        JsonBuffer buffer = acquire();
+        try {
+            return writeToken(refreshToken, buffer).toByteArray();
+        } finally {
+            release(buffer);
+        }
+    }
+
+    public static JsonBuffer writeUser(User user, JsonBuffer buffer) {
+        buffer.writeByte('{');
+        boolean first = writeField(buffer, true, "\"email\":", user.getEmail());
+        first = writeField(buffer, first, "\"password\":", user.getPassword());
+        writeField(buffer, first, "\"name\":", user.getName());
+        return buffer.writeByte('}');
+    }
+
+    public static JsonBuffer writeOrder(Order order, JsonBuffer buffer) {
+        buffer.writeByte('{');
+        List<String> ingredients = order.getIngredients();
+        if (ingredients != null) {
+            buffer.writeRaw("\"ingredients\":[");
+            // индексный обход без итератора
+            for (int i = 0, size = ingredients.size(); i < size; i++) {
+                if (i > 0) {
+                    buffer.writeByte(',');
+                }
+                buffer.writeString(ingredients.get(i));
+            }
+            buffer.writeByte(']');
+        }
+        return buffer.writeByte('}');
+    }
+
+    public static JsonBuffer writeToken(String refreshToken, JsonBuffer buffer) {
+        return buffer.writeRaw("{\"token\":").writeString(refreshToken).writeByte('}');
+    }
+
+    // поле пишется, только если значение не null; возвращает, остались ли поля до первого записанного
+    private static boolean writeField(JsonBuffer buffer, boolean first, String name, String value) {
+        if (value == null) {
+            return first;
+        }
+        if (!first) {
+            buffer.writeByte(',');
+        }
+        buffer.writeRaw(name).writeString(value);
+        return false;
+    }
+}
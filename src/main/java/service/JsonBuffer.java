@@ -0,0 +1,119 @@
+package service;
+
+import java.util.Arrays;
+
+// растущий байтовый буфер, в который json пишется сразу в UTF-8, без промежуточных String и char[]
+public class JsonBuffer {
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private byte[] bytes;
+    private int length;
+
+    public JsonBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    public byte[] array() {
+        return bytes;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public void reset() {
+        length = 0;
+    }
+
+    // точная копия записанного - то, что принимает RestAssured
+    public byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    public JsonBuffer writeByte(char ascii) {
+        ensureCapacity(1);
+        bytes[length++] = (byte) ascii;
+        return this;
+    }
+
+    // ascii-текст без экранирования: имена полей и разметка
+    public JsonBuffer writeRaw(String ascii) {
+        int size = ascii.length();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            bytes[length++] = (byte) ascii.charAt(i);
+        }
+        return this;
+    }
+
+    // строковое значение в кавычках: экранирование по RFC 8259 и кодирование в UTF-8 за один проход
+    public JsonBuffer writeString(String value) {
+        if (value == null) {
+            return writeRaw("null");
+        }
+        // на символ уходит не больше 6 байт (\\u001f), плюс кавычки
+        int size = value.length();
+        ensureCapacity(size * 6 + 2);
+        byte[] out = bytes;
+        int position = length;
+        out[position++] = '"';
+        for (int i = 0; i < size; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out[position++] = (byte) c;
+                    continue;
+                }
+                out[position++] = '\\';
+                switch (c) {
+                    case '"': out[position++] = '"'; break;
+                    case '\\': out[position++] = '\\'; break;
+                    case '\n': out[position++] = 'n'; break;
+                    case '\r': out[position++] = 'r'; break;
+                    case '\t': out[position++] = 't'; break;
+                    case '\b': out[position++] = 'b'; break;
+                    case '\f': out[position++] = 'f'; break;
+                    default:
+                        out[position++] = 'u';
+                        out[position++] = '0';
+                        out[position++] = '0';
+                        out[position++] = HEX[c >> 4];
+                        out[position++] = HEX[c & 0xF];
+                }
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (c == '\u2028' || c == '\u2029') {
+                // допустимы в json, но ломают javascript-парсеры, поэтому экранируются, как в Gson
+                out[position++] = '\\';
+                out[position++] = 'u';
+                out[position++] = '2';
+                out[position++] = '0';
+                out[position++] = '2';
+                out[position++] = HEX[c & 0xF];
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // непарный суррогат не кодируется в UTF-8, заменяем как String.getBytes
+                out[position++] = '?';
+            } else {
+                out[position++] = (byte) (0xE0 | (c >> 12));
+                out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out[position++] = '"';
+        length = position;
+        return this;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package service;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+// фильтр базовой спецификации: каждый запрос UserAPI и OrderAPI замеряется по своей ручке
+public class LatencyFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String endpoint = requestSpec.getMethod() + " " + requestSpec.getUserDefinedPath();
+        return LatencyMetrics.time(endpoint, () -> ctx.next(requestSpec, responseSpec));
+    }
+}
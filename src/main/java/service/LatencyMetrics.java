@@ -0,0 +1,234 @@
+package service;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.util.ResultsUtils;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// задержки запросов по ручкам: DNS, установка соединения, время до первого байта и полное время
+public class LatencyMetrics {
+    public enum Phase { DNS, CONNECT, TTFB, TOTAL }
+
+    // задержки пишутся в микросекундах, всё дольше минуты считается минутой
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    // куда складываются таблица и .hgrm, -Dlatency.dir переопределяет
+    public static final Path OUTPUT_DIR = Paths.get(System.getProperty("latency.dir", "target/latency"));
+
+    private static final Map<String, Endpoint> ENDPOINTS = new ConcurrentHashMap<>();
+    // замеры текущего запроса, их дописывают хуки HttpTransport в том же потоке
+    private static final ThreadLocal<Timing> CURRENT = new ThreadLocal<>();
+
+    static {
+        // в конце прогона сохраняем отчёт и прикладываем его к результатам Allure
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!ENDPOINTS.isEmpty()) {
+                Log.info(percentileTable());
+                attachToAllure(writeReport(OUTPUT_DIR));
+            }
+        }));
+    }
+
+    private LatencyMetrics() {
+    }
+
+    // выполнение запроса с замером; endpoint - метод и ручка, например "POST api/auth/register"
+    public static <T> T time(String endpoint, Supplier<T> call) {
+        Timing previous = CURRENT.get();
+        Timing timing = new Timing();
+        CURRENT.set(timing);
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } finally {
+            long total = System.nanoTime() - start;
+            CURRENT.set(previous);
+            Endpoint metrics = endpoint(endpoint);
+            // DNS и соединение есть только у запросов, которым не хватило соединения из пула
+            if (timing.dnsNanos >= 0) {
+                metrics.record(Phase.DNS, timing.dnsNanos);
+            }
+            if (timing.connectNanos >= 0) {
+                metrics.record(Phase.CONNECT, Math.max(0, timing.connectNanos - Math.max(0, timing.dnsNanos)));
+            }
+            if (timing.ttfbNanos >= 0) {
+                metrics.record(Phase.TTFB, timing.ttfbNanos);
+            }
+            metrics.record(Phase.TOTAL, total);
+        }
+    }
+
+    // прямая запись замера для запросов в обход RestAssured
+    public static void record(String endpoint, Phase phase, long nanos) {
+        endpoint(endpoint).record(phase, nanos);
+    }
+
+    // хуки транспорта: вызываются внутри time() в потоке запроса, вне его ничего не пишут
+    static void onDnsResolved(long nanos) {
+        Timing timing = CURRENT.get();
+        if (timing != null) {
+            timing.dnsNanos = Math.max(0, timing.dnsNanos) + nanos;
+        }
+    }
+
+    static void onConnectionOpened(long nanos) {
+        Timing timing = CURRENT.get();
+        if (timing != null) {
+            timing.connectNanos = Math.max(0, timing.connectNanos) + nanos;
+        }
+    }
+
+    static void onResponseHeaders(long nanos) {
+        Timing timing = CURRENT.get();
+        if (timing != null) {
+            timing.ttfbNanos = Math.max(0, timing.ttfbNanos) + nanos;
+        }
+    }
+
+    // накопленная гистограмма ручки и фазы в микросекундах, null если ручку ни разу не вызывали
+    public static Histogram snapshot(String endpoint, Phase phase) {
+        Endpoint metrics = ENDPOINTS.get(endpoint);
+        return metrics == null ? null : metrics.snapshot(phase);
+    }
+
+    // удаление ручки из общего отчёта; тесты убирают так свои ручки, чтобы они не попали в latency.txt и Allure
+    static void remove(String endpoint) {
+        ENDPOINTS.remove(endpoint);
+    }
+
+    // сервисный метод формирования таблицы перцентилей по всем ручкам в миллисекундах
+    public static String percentileTable() {
+        StringBuilder table = new StringBuilder(String.format("%n\uD83D\uDD35 Задержки запросов по ручкам, мс%n"));
+        table.append(String.format("%-28s %-8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "phase", "count", "p50", "p90", "p99", "p999", "max"));
+        ENDPOINTS.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(item -> {
+                    for (Phase phase : Phase.values()) {
+                        Histogram histogram = item.getValue().snapshot(phase);
+                        if (histogram.getTotalCount() == 0) {
+                            continue;
+                        }
+                        table.append(String.format("%-28s %-8s %8d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                                item.getKey(), phase.name().toLowerCase(), histogram.getTotalCount(),
+                                millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                                millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                                millis(histogram.getMaxValue())));
+                    }
+                });
+        return table.toString();
+    }
+
+    // сохранение таблицы в latency.txt и каждой непустой гистограммы в отдельный .hgrm (значения в мс)
+    public static Path writeReport(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            Files.write(dir.resolve("latency.txt"), percentileTable().getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, Endpoint> item : ENDPOINTS.entrySet()) {
+                for (Phase phase : Phase.values()) {
+                    Histogram histogram = item.getValue().snapshot(phase);
+                    if (histogram.getTotalCount() > 0) {
+                        Files.write(dir.resolve(hgrmFileName(item.getKey(), phase)), hgrm(histogram));
+                    }
+                }
+            }
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String hgrmFileName(String endpoint, Phase phase) {
+        return endpoint.replaceAll("[^A-Za-z0-9]+", "_") + "." + phase.name().toLowerCase() + ".hgrm";
+    }
+
+    // отдельный результат "Задержки API" с таблицей и .hgrm во вложениях
+    private static void attachToAllure(Path dir) {
+        try {
+            AllureLifecycle lifecycle = Allure.getLifecycle();
+            String uuid = UUID.randomUUID().toString();
+            lifecycle.scheduleTestCase(new TestResult()
+                    .setUuid(uuid)
+                    .setName("Задержки API")
+                    .setFullName("service.LatencyMetrics")
+                    .setHistoryId("service.LatencyMetrics")
+                    .setStatus(Status.PASSED)
+                    .setLabels(Collections.singletonList(ResultsUtils.createSuiteLabel("Метрики прогона"))));
+            lifecycle.startTestCase(uuid);
+            lifecycle.addAttachment("latency.txt", "text/plain", "txt", Files.readAllBytes(dir.resolve("latency.txt")));
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.hgrm")) {
+                for (Path file : files) {
+                    lifecycle.addAttachment(file.getFileName().toString(), "text/plain", "hgrm", Files.readAllBytes(file));
+                }
+            }
+            lifecycle.stopTestCase(uuid);
+            lifecycle.writeTestCase(uuid);
+        } catch (IOException | RuntimeException e) {
+            // отчёт уже лежит на диске, без вложения в Allure прогон не ломаем
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Задержки не приложены к Allure: %s.%n", e));
+        }
+    }
+
+    private static byte[] hgrm(Histogram histogram) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, true, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Endpoint endpoint(String endpoint) {
+        return ENDPOINTS.computeIfAbsent(endpoint, key -> new Endpoint());
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    // запись через Recorder не блокирует пишущие потоки, чтение накапливает интервалы под замком
+    private static final class Endpoint {
+        private final Recorder[] recorders = new Recorder[Phase.values().length];
+        private final Histogram[] accumulated = new Histogram[Phase.values().length];
+
+        private Endpoint() {
+            for (int i = 0; i < recorders.length; i++) {
+                recorders[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+                accumulated[i] = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+            }
+        }
+
+        private void record(Phase phase, long nanos) {
+            recorders[phase.ordinal()].recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+        }
+
+        private synchronized Histogram snapshot(Phase phase) {
+            Histogram total = accumulated[phase.ordinal()];
+            total.add(recorders[phase.ordinal()].getIntervalHistogram());
+            return total.copy();
+        }
+    }
+
+    private static final class Timing {
+        private long dnsNanos = -1;
+        private long connectNanos = -1;
+        private long ttfbNanos = -1;
+    }
+}
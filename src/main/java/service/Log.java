@@ -0,0 +1,123 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+// журнал с уровнями: сообщение формируется, только если его уровень включён,
+// и выводится фоновым потоком пачками, а не отдельным System.out.println на каждое сообщение
+public class Log {
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    // порог вывода, -Dlog.level=WARN оставит только предупреждения и ошибки
+    public static final Level LEVEL = Level.valueOf(System.getProperty("log.level", "INFO").toUpperCase());
+    private static final int QUEUE_SIZE = Integer.getInteger("log.queueSize", 8192);
+    private static final int BATCH_SIZE = 256;
+
+    private static final BlockingQueue<String> QUEUE = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private static volatile boolean shuttingDown;
+
+    static {
+        Thread writer = new Thread(Log::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        // при остановке JVM дописываем всё, что осталось в очереди
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            shuttingDown = true;
+            print(null);
+        }));
+    }
+
+    private Log() {
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(LEVEL) >= 0 && level != Level.OFF;
+    }
+
+    public static void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public static void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public static void warn(Supplier<String> message) {
+        log(Level.WARN, message);
+    }
+
+    public static void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    public static void log(Level level, Supplier<String> message) {
+        if (isEnabled(level)) {
+            write(message.get());
+        }
+    }
+
+    public static void log(Level level, String message) {
+        if (isEnabled(level)) {
+            write(message);
+        }
+    }
+
+    private static void write(String message) {
+        // на остановке фоновый поток может уже не работать
+        if (shuttingDown) {
+            System.out.println(message);
+            return;
+        }
+        try {
+            // очередь полна - ждём писателя, чтобы не терять сообщения
+            QUEUE.put(message);
+            // остановка началась, пока сообщение вставало в очередь
+            if (shuttingDown) {
+                print(null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println(message);
+        }
+    }
+
+    private static void drainLoop() {
+        try {
+            while (true) {
+                String first = QUEUE.take();
+                print(first);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // вывод накопившихся сообщений одним вызовом System.out.print
+    private static synchronized void print(String first) {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        if (first != null) {
+            batch.add(first);
+        }
+        do {
+            QUEUE.drainTo(batch, BATCH_SIZE);
+            if (batch.isEmpty()) {
+                break;
+            }
+            StringBuilder text = new StringBuilder();
+            for (String message : batch) {
+                text.append(message).append(System.lineSeparator());
+            }
+            System.out.print(text);
+            batch.clear();
+        } while (!QUEUE.isEmpty());
+        System.out.flush();
+    }
+}
@@ -0,0 +1,60 @@
+package service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.ToNumberPolicy;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// потоковое чтение ленты api/orders/all: разбираются только заказы из нужного диапазона,
+// остальные пропускаются, а после toIndex чтение прекращается без дочитывания тела
+public class OrderFeedReader {
+    // целые числа (например, номер заказа) остаются целыми, как в JsonPath
+    private static final Gson GSON = new GsonBuilder().setObjectToNumberStrategy(ToNumberPolicy.LONG_OR_DOUBLE).create();
+    private static final Type ORDER_TYPE = new TypeToken<Map<String, Object>>() {}.getType();
+
+    private OrderFeedReader() {
+    }
+
+    // заказы с индексами от fromIndex (включительно) до toIndex (не включительно)
+    public static List<Map<String, Object>> read(InputStream body, int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex < fromIndex) {
+            throw new IllegalArgumentException(String.format("Некорректный диапазон заказов: [%d, %d).", fromIndex, toIndex));
+        }
+        List<Map<String, Object>> orders = new ArrayList<>(toIndex - fromIndex);
+        try (JsonReader reader = new JsonReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if (!"orders".equals(reader.nextName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                reader.beginArray();
+                int index = 0;
+                while (reader.hasNext() && index < toIndex) {
+                    if (index >= fromIndex) {
+                        orders.add(GSON.fromJson(reader, ORDER_TYPE));
+                    } else {
+                        reader.skipValue();
+                    }
+                    index++;
+                }
+                // остаток ленты не нужен, закрываем поток
+                return orders;
+            }
+            return orders;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
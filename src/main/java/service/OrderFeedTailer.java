@@ -0,0 +1,310 @@
+package service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static service.Utilities.ORDER_GET_ALL;
+
+// слежение за лентой api/orders/all: опрос по расписанию (или подписка по WebSocket, если задан -Dorders.feed.wsUri),
+// слушателям уходят только новые и изменившиеся заказы. Между опросами помнится только отметка:
+// последний номер заказа и последний updatedAt
+public class OrderFeedTailer implements AutoCloseable {
+    public enum EventType { NEW, CHANGED }
+
+    // адрес ленты заказов по WebSocket, например wss://norma.nomoreparties.space/orders/all
+    public static final String WS_URI = System.getProperty("orders.feed.wsUri");
+    private static final long REQUEST_TIMEOUT_SECONDS = 30;
+
+    private final Gson gson = new Gson();
+    private final Duration interval;
+    private final boolean emitInitial;
+    private final BlockingQueue<Event> queue;
+    private final List<Consumer<Event>> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler;
+    private final Thread dispatcher;
+
+    // отметка: меняется только в потоке опроса
+    private boolean initialized;
+    private long lastNumber = -1;
+    private String lastUpdatedAt = "";
+    // заказы с updatedAt, равным отметке, уже отданы - иначе их повторит следующий опрос
+    private Set<String> idsAtLastUpdatedAt = new HashSet<>();
+    private volatile Integer total;
+    private volatile Integer totalToday;
+
+    private final LongAdder polls = new LongAdder();
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile WebSocket webSocket;
+    private volatile boolean closed;
+
+    // interval - период опроса (и пауза перед переподключением WebSocket),
+    // queueCapacity - сколько событий ждут слушателей, прежде чем новые начнут отбрасываться,
+    // emitInitial - отдать ли заказы, уже лежащие в ленте при первом опросе
+    public OrderFeedTailer(Duration interval, int queueCapacity, boolean emitInitial) {
+        this.interval = interval;
+        this.emitInitial = emitInitial;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-feed-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "order-feed-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    public OrderFeedTailer addListener(Consumer<Event> listener) {
+        listeners.add(listener);
+        return this;
+    }
+
+    public OrderFeedTailer start() {
+        dispatcher.start();
+        if (WS_URI != null) {
+            scheduler.execute(this::connect);
+        } else {
+            scheduler.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        scheduler.shutdownNow();
+        dispatcher.interrupt();
+        WebSocket socket = webSocket;
+        if (socket != null) {
+            socket.abort();
+        }
+        Log.info(this::statsInfo);
+    }
+
+    // один опрос ленты; ошибки не останавливают расписание
+    private void poll() {
+        try {
+            ApiResponse response = AsyncTransport.send("GET", ORDER_GET_ALL, null, null)
+                    .get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (response.getStatusCode() != SC_OK) {
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Лента заказов не получена, статус-код %d.", response.getStatusCode()));
+                return;
+            }
+            accept(response.asString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Ошибка опроса ленты заказов: %s.", e));
+        }
+    }
+
+    // подписка по WebSocket: каждое сообщение - такой же снимок ленты, как ответ api/orders/all
+    private void connect() {
+        if (closed) {
+            return;
+        }
+        HttpClient.newHttpClient().newWebSocketBuilder()
+                .buildAsync(URI.create(WS_URI), new FeedSocketListener())
+                .whenComplete((socket, error) -> {
+                    if (error != null) {
+                        Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Нет подключения к %s: %s.", WS_URI, error));
+                        reconnectLater();
+                    } else {
+                        webSocket = socket;
+                    }
+                });
+    }
+
+    private void reconnectLater() {
+        if (!closed) {
+            scheduler.schedule(this::connect, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // разбор снимка ленты и отбор новых и изменившихся заказов; вызывается из одного потока
+    synchronized void accept(String body) {
+        OrderResponse feed;
+        try {
+            feed = gson.fromJson(body, OrderResponse.class);
+        } catch (JsonParseException e) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Лента заказов не разобрана: %s.", e.getMessage()));
+            return;
+        }
+        // сообщение без ленты (например, {"success":false}) не снимок: отметку не трогаем
+        if (feed == null || !Boolean.TRUE.equals(feed.getSuccess())) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Сообщение без ленты заказов пропущено: %s.", body));
+            return;
+        }
+        polls.increment();
+        total = feed.getTotal();
+        totalToday = feed.getTotalToday();
+
+        long maxNumber = lastNumber;
+        String maxUpdatedAt = lastUpdatedAt;
+        long droppedBefore = dropped.sum();
+        for (OrderResponse.OrderData order : feed.getOrders()) {
+            if (order == null) {
+                continue;
+            }
+            long number = order.getNumber() == null ? -1 : order.getNumber();
+            String updatedAt = order.getUpdatedAt() == null ? "" : order.getUpdatedAt();
+            // ISO-8601 в UTC сравнивается как строка
+            int againstMark = updatedAt.compareTo(lastUpdatedAt);
+
+            if (initialized || emitInitial) {
+                if (number > lastNumber) {
+                    emit(new Event(EventType.NEW, order));
+                } else if (againstMark > 0 || (againstMark == 0 && !idsAtLastUpdatedAt.contains(order.getId()))) {
+                    emit(new Event(EventType.CHANGED, order));
+                }
+            }
+            maxNumber = Math.max(maxNumber, number);
+            if (updatedAt.compareTo(maxUpdatedAt) > 0) {
+                maxUpdatedAt = updatedAt;
+            }
+        }
+
+        // сдвигаем отметку; при том же updatedAt копим айди, уже отданные с этим временем
+        Set<String> idsAtMark = maxUpdatedAt.equals(lastUpdatedAt) ? idsAtLastUpdatedAt : new HashSet<>();
+        for (OrderResponse.OrderData order : feed.getOrders()) {
+            if (order != null && maxUpdatedAt.equals(order.getUpdatedAt())) {
+                idsAtMark.add(order.getId());
+            }
+        }
+        idsAtLastUpdatedAt = idsAtMark;
+        lastNumber = maxNumber;
+        lastUpdatedAt = maxUpdatedAt;
+        initialized = true;
+
+        // одно предупреждение на снимок, а не на каждое отброшенное событие
+        long droppedNow = dropped.sum() - droppedBefore;
+        if (droppedNow > 0) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Слушатели ленты заказов не успевают: отброшено событий %d, всего %d.",
+                    droppedNow, dropped.sum()));
+        }
+    }
+
+    // очередь полна - событие отбрасывается и учитывается, опрос не ждёт медленных слушателей
+    private void emit(Event event) {
+        if (queue.offer(event)) {
+            emitted.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void dispatchLoop() {
+        try {
+            while (!closed) {
+                Event event = queue.take();
+                for (Consumer<Event> listener : listeners) {
+                    try {
+                        listener.accept(event);
+                    } catch (RuntimeException e) {
+                        Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Слушатель ленты заказов упал: %s.", e));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // события, ещё не отданные слушателям (для проверки без запуска)
+    Event nextEvent(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public long getLastNumber() {
+        return lastNumber;
+    }
+
+    public String getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public Integer getTotalToday() {
+        return totalToday;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    // сервисный метод формирования сводки по ленте
+    public String statsInfo() {
+        return String.format("\uD83D\uDD35 Лента заказов: снимков %d, событий %d, отброшено %d, последний заказ №%d, всего %s, сегодня %s.",
+                polls.sum(), emitted.sum(), dropped.sum(), lastNumber, total, totalToday);
+    }
+
+    // новый или изменившийся заказ
+    public static final class Event {
+        private final EventType type;
+        private final OrderResponse.OrderData order;
+
+        private Event(EventType type, OrderResponse.OrderData order) {
+            this.type = type;
+            this.order = order;
+        }
+
+        public EventType getType() {
+            return type;
+        }
+
+        public OrderResponse.OrderData getOrder() {
+            return order;
+        }
+    }
+
+    // сообщение может прийти частями, снимок разбирается после последней
+    private final class FeedSocketListener implements WebSocket.Listener {
+        private final StringBuilder message = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket socket, CharSequence data, boolean last) {
+            message.append(data);
+            if (last) {
+                String body = message.toString();
+                message.setLength(0);
+                accept(body);
+            }
+            socket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket socket, int statusCode, String reason) {
+            reconnectLater();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void onError(WebSocket socket, Throwable error) {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Ошибка WebSocket ленты заказов: %s.", error));
+            reconnectLater();
+        }
+    }
+}
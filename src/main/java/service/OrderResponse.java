@@ -0,0 +1,94 @@
+package service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+// ответы ручек api/orders и api/orders/all: созданный заказ или список заказов
+@Getter
+public class OrderResponse extends TypedResponse {
+    private String name;
+    private OrderData order;
+    private List<OrderData> orders;
+    private Integer total;
+    private Integer totalToday;
+
+    public static OrderResponse of(Response response) {
+        return ResponseBodies.as(response, OrderResponse.class);
+    }
+
+    public List<OrderData> getOrders() {
+        return orders == null ? Collections.emptyList() : orders;
+    }
+
+    // заказ создан: есть название бургера и номер
+    public void assertCreated() {
+        assertSuccess(SC_OK, true);
+        assertNotNull(describe("name"), name);
+        assertNotNull(describe("order"), order);
+        assertNotNull(describe("order.number"), order.getNumber());
+    }
+
+    // заказ создан для пользователя и содержит ожидаемый первый ингредиент
+    public void assertCreatedFor(User owner, String firstIngredientId) {
+        assertSuccess(SC_OK, true);
+        assertNotNull(describe("name"), name);
+        assertNotNull(describe("order"), order);
+        assertEquals(describe("order.ingredients[0]._id"), firstIngredientId,
+                order.getIngredientIds().isEmpty() ? null : order.getIngredientIds().get(0));
+        assertNotNull(describe("order.owner"), order.getOwner());
+        assertEquals(describe("order.owner.name"), owner.getName(), order.getOwner().getName());
+        assertEquals(describe("order.owner.email"), owner.getEmail(), order.getOwner().getEmail());
+    }
+
+    // непустой список заказов с айди и ингредиентами у первого
+    public void assertOrderList() {
+        assertSuccess(SC_OK, true);
+        assertFalse(describe("orders"), getOrders().isEmpty());
+        assertNotNull(describe("orders[0]._id"), orders.get(0).getId());
+        assertNotNull(describe("orders[0].ingredients"), orders.get(0).getIngredients());
+    }
+
+    @Getter
+    public static class OrderData {
+        @SerializedName("_id")
+        private String id;
+        private Integer number;
+        private String name;
+        private String status;
+        private String createdAt;
+        private String updatedAt;
+        private Owner owner;
+        // в списках это айди, в созданном заказе - объекты ингредиентов
+        private List<JsonElement> ingredients;
+
+        public List<String> getIngredientIds() {
+            if (ingredients == null) {
+                return Collections.emptyList();
+            }
+            List<String> ids = new ArrayList<>(ingredients.size());
+            for (JsonElement ingredient : ingredients) {
+                ids.add(ingredient.isJsonObject()
+                        ? ingredient.getAsJsonObject().get("_id").getAsString()
+                        : ingredient.getAsString());
+            }
+            return ids;
+        }
+    }
+
+    @Getter
+    public static class Owner {
+        private String name;
+        private String email;
+    }
+}
@@ -0,0 +1,289 @@
+package service;
+
+import io.restassured.response.Response;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// хранилище заказов из ответов getAllOrdersList и getUserOrderList с индексами по номеру, статусу,
+// ингредиенту и времени создания. Индексы строятся один раз после добавления заказов: заказы
+// сортируются по createdAt, а индексы - это массивы позиций в порядке времени, поэтому выборка
+// за период внутри статуса или ингредиента - двоичный поиск, а не проход по всем заказам
+public class OrderStore {
+    // заказы по номеру; повторно пришедший заказ заменяет прежний
+    private final IntIntMap slotByNumber = new IntIntMap();
+    private final List<OrderResponse.OrderData> orders = new ArrayList<>();
+    private Index index;
+
+    public static OrderStore of(Response... responses) {
+        OrderStore store = new OrderStore();
+        for (Response response : responses) {
+            store.add(response);
+        }
+        return store;
+    }
+
+    public OrderStore add(Response response) {
+        return addAll(OrderResponse.of(response).getOrders());
+    }
+
+    public synchronized OrderStore addAll(Collection<OrderResponse.OrderData> added) {
+        for (OrderResponse.OrderData order : added) {
+            if (order.getNumber() == null) {
+                orders.add(order);
+                continue;
+            }
+            int slot = slotByNumber.get(order.getNumber());
+            if (slot < 0) {
+                slotByNumber.put(order.getNumber(), orders.size());
+                orders.add(order);
+            } else if (compare(order.getUpdatedAt(), orders.get(slot).getUpdatedAt()) >= 0) {
+                orders.set(slot, order);
+            }
+        }
+        index = null;
+        return this;
+    }
+
+    public synchronized int size() {
+        return orders.size();
+    }
+
+    public OrderResponse.OrderData byNumber(int number) {
+        Index current = index();
+        int position = current.positionByNumber.get(number);
+        return position < 0 ? null : current.byTime[position];
+    }
+
+    // заказы в статусе, по возрастанию времени создания
+    public List<OrderResponse.OrderData> byStatus(String status) {
+        Index current = index();
+        return current.select(current.statuses.postings(status), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public List<OrderResponse.OrderData> byStatus(String status, Instant from, Instant to) {
+        Index current = index();
+        return current.select(current.statuses.postings(status), from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    public List<OrderResponse.OrderData> withIngredient(String ingredientId) {
+        Index current = index();
+        return current.select(current.ingredients.postings(ingredientId), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // заказы с ингредиентом, созданные в [from, to)
+    public List<OrderResponse.OrderData> withIngredient(String ingredientId, Instant from, Instant to) {
+        Index current = index();
+        return current.select(current.ingredients.postings(ingredientId), from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    // заказы, созданные в [from, to)
+    public List<OrderResponse.OrderData> createdBetween(Instant from, Instant to) {
+        Index current = index();
+        return current.select(null, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    private synchronized Index index() {
+        if (index == null) {
+            index = new Index(orders);
+        }
+        return index;
+    }
+
+    // ISO-8601 в UTC сравнивается как строка; null - раньше всего
+    private static int compare(String left, String right) {
+        return (left == null ? "" : left).compareTo(right == null ? "" : right);
+    }
+
+    private static long epochMillis(String createdAt) {
+        if (createdAt == null) {
+            return Long.MIN_VALUE;
+        }
+        try {
+            return Instant.parse(createdAt).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    // неизменяемый снимок индексов
+    private static final class Index {
+        private final OrderResponse.OrderData[] byTime;
+        private final long[] createdAt;
+        private final IntIntMap positionByNumber = new IntIntMap();
+        private final Postings statuses = new Postings();
+        private final Postings ingredients = new Postings();
+
+        private Index(List<OrderResponse.OrderData> orders) {
+            int size = orders.size();
+            long[] keys = new long[size];
+            Integer[] slots = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = epochMillis(orders.get(i).getCreatedAt());
+                slots[i] = i;
+            }
+            Arrays.sort(slots, (a, b) -> Long.compare(keys[a], keys[b]));
+
+            byTime = new OrderResponse.OrderData[size];
+            createdAt = new long[size];
+            for (int position = 0; position < size; position++) {
+                OrderResponse.OrderData order = orders.get(slots[position]);
+                byTime[position] = order;
+                createdAt[position] = keys[slots[position]];
+                if (order.getNumber() != null) {
+                    positionByNumber.put(order.getNumber(), position);
+                }
+                statuses.add(order.getStatus(), position);
+                // ингредиент, повторённый в заказе, индексируется один раз
+                List<String> ingredientIds = order.getIngredientIds();
+                for (int i = 0; i < ingredientIds.size(); i++) {
+                    if (ingredientIds.indexOf(ingredientIds.get(i)) == i) {
+                        ingredients.add(ingredientIds.get(i), position);
+                    }
+                }
+            }
+            statuses.trim();
+            ingredients.trim();
+        }
+
+        // positions null - все заказы; позиции возрастают вместе со временем создания
+        private List<OrderResponse.OrderData> select(int[] positions, long from, long to) {
+            if (positions != null && positions.length == 0) {
+                return Collections.emptyList();
+            }
+            int length = positions == null ? byTime.length : positions.length;
+            int start = lowerBound(positions, length, from);
+            int end = lowerBound(positions, length, to);
+            List<OrderResponse.OrderData> result = new ArrayList<>(Math.max(end - start, 0));
+            for (int i = start; i < end; i++) {
+                result.add(byTime[positions == null ? i : positions[i]]);
+            }
+            return result;
+        }
+
+        // первый элемент со временем создания не раньше time
+        private int lowerBound(int[] positions, int length, long time) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                long value = createdAt[positions == null ? middle : positions[middle]];
+                if (value < time) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    // значение (статус, айди ингредиента) -> возрастающий массив позиций. Строка превращается
+    // в номер один раз, дальше списки растут как int[] без упаковки
+    private static final class Postings {
+        private static final int[] EMPTY = new int[0];
+        private final Map<String, Integer> codes = new HashMap<>();
+        private int[][] lists = new int[8][];
+        private int[] sizes = new int[8];
+
+        private void add(String value, int position) {
+            if (value == null) {
+                return;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = codes.size();
+                codes.put(value, code);
+                if (code == lists.length) {
+                    lists = Arrays.copyOf(lists, code * 2);
+                    sizes = Arrays.copyOf(sizes, code * 2);
+                }
+                lists[code] = new int[4];
+            }
+            int[] list = lists[code];
+            if (sizes[code] == list.length) {
+                list = lists[code] = Arrays.copyOf(list, list.length * 2);
+            }
+            list[sizes[code]++] = position;
+        }
+
+        // списки обрезаются по размеру, после этого снимок только читается
+        private void trim() {
+            for (int code = 0; code < codes.size(); code++) {
+                lists[code] = Arrays.copyOf(lists[code], sizes[code]);
+            }
+        }
+
+        private int[] postings(String value) {
+            Integer code = codes.get(value);
+            return code == null ? EMPTY : lists[code];
+        }
+    }
+
+    // int -> int с открытой адресацией; отсутствие значения - -1
+    private static final class IntIntMap {
+        private static final int FREE = Integer.MIN_VALUE;
+        private int[] keys = newKeys(16);
+        private int[] values = new int[16];
+        private int size;
+
+        private static int[] newKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, FREE);
+            return keys;
+        }
+
+        private int slot(int key, int[] keys) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ hash >>> 16) & mask;
+            while (keys[slot] != FREE && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private int get(int key) {
+            int slot = slot(key, keys);
+            return keys[slot] == key ? values[slot] : -1;
+        }
+
+        private void put(int key, int value) {
+            if (key == FREE) {
+                throw new IllegalArgumentException("Недопустимый номер заказа: " + key);
+            }
+            int slot = slot(key, keys);
+            if (keys[slot] != key) {
+                keys[slot] = key;
+                // заполнение не больше половины
+                if (++size * 2 > keys.length) {
+                    values[slot] = value;
+                    resize();
+                    return;
+                }
+            }
+            values[slot] = value;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = newKeys(oldKeys.length * 2);
+            values = new int[oldKeys.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) {
+                    int slot = slot(oldKeys[i], keys);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// ограничение частоты и числа одновременных запросов на каждую ручку, общее для UserAPI/OrderAPI
+// (через ResilienceFilter) и AsyncTransport. Частота - ведро токенов на одном AtomicLong: время,
+// когда освободится следующее разрешение; одновременные запросы - счётчик и очередь ожидающих без блокировок.
+// Ответ 429 вдвое снижает частоту и останавливает ручку до Retry-After, успешные ответы возвращают её к пределу
+public class RateLimiter {
+    // настройки по умолчанию, переопределяются через -D, для отдельной ручки - через -Dratelimit.rps.api/orders=5;
+    // 0 отключает ограничение
+    public static final double RPS = Double.parseDouble(System.getProperty("ratelimit.rps", "50"));
+    public static final int MAX_IN_FLIGHT = Integer.getInteger("ratelimit.maxInFlight", 32);
+    // нижняя граница частоты при снижении по 429
+    private static final double MIN_RPS = 0.5;
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private static final RateLimiter SHARED = new RateLimiter(
+            path -> Double.parseDouble(System.getProperty("ratelimit.rps." + path, String.valueOf(RPS))),
+            path -> Integer.getInteger("ratelimit.maxInFlight." + path, MAX_IN_FLIGHT));
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!SHARED.limits.isEmpty()) {
+                Log.info(SHARED.statsInfo());
+            }
+        }));
+    }
+
+    private final Function<String, Double> rps;
+    private final Function<String, Integer> maxInFlight;
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+
+    RateLimiter(Function<String, Double> rps, Function<String, Integer> maxInFlight) {
+        this.rps = rps;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static RateLimiter shared() {
+        return SHARED;
+    }
+
+    // синхронный вызов: поток ждёт разрешения, затем выполняет call
+    public <R> R execute(String path, Supplier<R> call, ToIntFunction<R> statusCode, Function<R, String> retryAfter) {
+        Limit limit = limit(path);
+        long start = System.nanoTime();
+        long wait = limit.reserve();
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                // прерывание не отменяет запрос, флаг остаётся для вызывающего
+                Thread.currentThread().interrupt();
+            }
+        }
+        limit.inFlight.acquire().join();
+        limit.recordWait(System.nanoTime() - start);
+        try {
+            R result = call.get();
+            limit.onResponse(statusCode.applyAsInt(result), retryAfter.apply(result));
+            return result;
+        } finally {
+            limit.inFlight.release();
+        }
+    }
+
+    // асинхронный вызов: ожидание разрешения не занимает поток
+    public <R> CompletableFuture<R> executeAsync(String path, Supplier<CompletableFuture<R>> call,
+                                                 ToIntFunction<R> statusCode, Function<R, String> retryAfter) {
+        Limit limit = limit(path);
+        long start = System.nanoTime();
+        long wait = limit.reserve();
+        CompletableFuture<Void> permitted = wait > 0
+                ? CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS))
+                : CompletableFuture.completedFuture(null);
+
+        return permitted.thenCompose(ignored -> limit.inFlight.acquire()).thenCompose(ignored -> {
+            limit.recordWait(System.nanoTime() - start);
+            CompletableFuture<R> response;
+            try {
+                response = call.get();
+            } catch (RuntimeException e) {
+                limit.inFlight.release();
+                throw e;
+            }
+            return response.whenComplete((result, error) -> {
+                limit.inFlight.release();
+                if (result != null) {
+                    limit.onResponse(statusCode.applyAsInt(result), retryAfter.apply(result));
+                }
+            });
+        });
+    }
+
+    private Limit limit(String path) {
+        return limits.computeIfAbsent(path, key -> new Limit(key, rps.apply(key), maxInFlight.apply(key)));
+    }
+
+    // сколько всего ждали разрешений на ручке
+    public long waitedNanos(String path) {
+        Limit limit = limits.get(path);
+        return limit == null ? 0 : limit.waited.sum();
+    }
+
+    // текущая частота ручки после подстройки по 429, 0 - без ограничения
+    public double currentRps(String path) {
+        Limit limit = limits.get(path);
+        return limit == null ? rps.apply(path) : limit.currentRps();
+    }
+
+    // сервисный метод формирования таблицы по ручкам
+    public String statsInfo() {
+        StringBuilder info = new StringBuilder("\uD83D\uDD35 Ограничение запросов (разрешений / ожидание всего, мс / "
+                + "среднее, мс / максимум, мс / ответов 429 / текущая частота, запр/с):");
+        for (Limit limit : new TreeMap<>(limits).values()) {
+            long permits = limit.permits.sum();
+            long waited = limit.waited.sum();
+            info.append(String.format("%n%-20s %7d %9.1f %7.2f %7.1f %5d %7.1f", limit.path, permits,
+                    waited / 1e6, permits == 0 ? 0.0 : waited / 1e6 / permits, limit.maxWait.get() / 1e6,
+                    limit.throttled.sum(), limit.currentRps()));
+        }
+        return info.toString();
+    }
+
+    // Retry-After: число секунд или дата в формате RFC 1123; null, если заголовок не разобран
+    static Long retryAfterNanos(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return TimeUnit.SECONDS.toNanos(Long.parseLong(header.trim()));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toNanos());
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    // лимиты одной ручки
+    private static final class Limit {
+        private final String path;
+        // интервал между разрешениями на пределе частоты и текущий, 0 - без ограничения
+        private final long ceilingInterval;
+        private final AtomicLong interval;
+        // разрешения, которые можно взять подряд, накапливаются за время простоя
+        private final int burst;
+        // момент, когда освободится следующее разрешение
+        private final AtomicLong next = new AtomicLong(Long.MIN_VALUE / 2);
+        private final AtomicLong successStreak = new AtomicLong();
+        private final Gate inFlight;
+
+        private final LongAdder permits = new LongAdder();
+        private final LongAdder waited = new LongAdder();
+        private final LongAccumulator maxWait = new LongAccumulator(Math::max, 0);
+        private final LongAdder throttled = new LongAdder();
+
+        private Limit(String path, double rps, int maxInFlight) {
+            this.path = path;
+            this.ceilingInterval = rps > 0 ? Math.round(SECOND / rps) : 0;
+            this.interval = new AtomicLong(ceilingInterval);
+            this.burst = (int) Math.max(1, Math.ceil(rps));
+            this.inFlight = new Gate(maxInFlight > 0 ? maxInFlight : Integer.MAX_VALUE);
+        }
+
+        // резервирование разрешения; возвращает, сколько наносекунд его ждать
+        private long reserve() {
+            long step = interval.get();
+            while (true) {
+                long now = System.nanoTime();
+                long current = next.get();
+                // простой копит не больше burst разрешений
+                long start = Math.max(current, now - (burst - 1) * step);
+                if (next.compareAndSet(current, start + step)) {
+                    return Math.max(0, start - now);
+                }
+            }
+        }
+
+        private void recordWait(long nanos) {
+            permits.increment();
+            waited.add(nanos);
+            maxWait.accumulate(nanos);
+        }
+
+        private void onResponse(int statusCode, String retryAfter) {
+            if (statusCode == 429) {
+                throttled.increment();
+                successStreak.set(0);
+                // мультипликативное снижение частоты, но не ниже MIN_RPS
+                if (ceilingInterval > 0) {
+                    interval.accumulateAndGet(Math.round(SECOND / MIN_RPS), (current, floor) -> Math.min(floor, current * 2));
+                }
+                Long pause = retryAfterNanos(retryAfter);
+                if (pause != null) {
+                    next.accumulateAndGet(System.nanoTime() + pause, Math::max);
+                }
+                Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Ручка %s ответила 429, частота снижена до %.1f запр/с%s.",
+                        path, currentRps(), pause == null ? "" : String.format(", пауза %d мс", TimeUnit.NANOSECONDS.toMillis(pause))));
+                return;
+            }
+            // аддитивный рост: +1 запр/с после стольких успешных ответов подряд, какова текущая частота
+            long step = interval.get();
+            if (step > ceilingInterval && successStreak.incrementAndGet() >= SECOND / step) {
+                successStreak.set(0);
+                interval.accumulateAndGet(ceilingInterval, (current, ceiling) -> Math.max(ceiling, SECOND * current / (SECOND + current)));
+            }
+        }
+
+        private double currentRps() {
+            long step = interval.get();
+            return step == 0 ? 0 : (double) SECOND / step;
+        }
+    }
+
+    // счётчик одновременных запросов с очередью ожидающих: освобождённое место передаётся первому в очереди
+    private static final class Gate {
+        private final int capacity;
+        private final AtomicInteger used = new AtomicInteger();
+        private final ConcurrentLinkedQueue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+
+        private Gate(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private CompletableFuture<Void> acquire() {
+            while (true) {
+                int current = used.get();
+                if (current < capacity) {
+                    if (used.compareAndSet(current, current + 1)) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    continue;
+                }
+                CompletableFuture<Void> waiter = new CompletableFuture<>();
+                waiters.add(waiter);
+                // место могло освободиться, пока вставали в очередь
+                if (used.get() < capacity && waiters.remove(waiter)) {
+                    continue;
+                }
+                return waiter;
+            }
+        }
+
+        private void release() {
+            CompletableFuture<Void> waiter = waiters.poll();
+            if (waiter != null) {
+                // место переходит ожидающему, счётчик не меняется
+                waiter.complete(null);
+                return;
+            }
+            used.decrementAndGet();
+            // ожидающий мог встать в очередь между poll и уменьшением счётчика - место отдаём ему
+            while (!waiters.isEmpty()) {
+                int current = used.get();
+                if (current >= capacity) {
+                    return;
+                }
+                if (used.compareAndSet(current, current + 1)) {
+                    waiter = waiters.poll();
+                    if (waiter == null) {
+                        used.decrementAndGet();
+                    } else {
+                        waiter.complete(null);
+                    }
+                }
+            }
+        }
+    }
+}
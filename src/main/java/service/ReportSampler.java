@@ -0,0 +1,133 @@
+package service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// выборочная запись отчёта для нагрузочных и долгих прогонов: из успешных вызовов каждого шага полностью
+// записывается (шаг Allure и вывод printResponseInfo) только каждый N-й, неуспешные - всегда, остальные
+// только считаются. Так объём отчёта растёт с числом сбоев, а не с числом запросов
+public class ReportSampler {
+    // каждый N-й успешный вызов, -Dreport.sample=1 (по умолчанию) записывает всё
+    public static final int SAMPLE = Math.max(1, Integer.getInteger("report.sample", 1));
+
+    private static final ReportSampler SHARED = new ReportSampler(SAMPLE);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!SHARED.counters.isEmpty()) {
+                Log.info(SHARED.statsInfo());
+            }
+        }));
+    }
+
+    private final int sample;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    // решения по открытым шагам потока: вложенный шаг решает за себя, printResponseInfo - по ближайшему шагу
+    private final ThreadLocal<Deque<Boolean>> decisions = ThreadLocal.withInitial(ArrayDeque::new);
+
+    ReportSampler(int sample) {
+        this.sample = sample;
+    }
+
+    public static ReportSampler shared() {
+        return SHARED;
+    }
+
+    public boolean isEnabled() {
+        return sample > 1;
+    }
+
+    // открытие шага: попадёт ли он в выборку, решается сразу, первый вызов каждого шага записывается всегда
+    public void enterStep(String name) {
+        decisions.get().push(next(name));
+    }
+
+    // закрытие шага: true - шаг остаётся в отчёте, false - только учтён в счётчиках
+    public boolean exitStep(String name, boolean success) {
+        Deque<Boolean> open = decisions.get();
+        boolean sampled = open.isEmpty() || open.pop();
+        if (!success) {
+            keepOpenSteps(open);
+        }
+        return record(name, sampled, success);
+    }
+
+    // вывод вне шагов Allure: решение открытого шага, а без него (например, без агента AspectJ) - своя выборка по ключу.
+    // Шаг @Step не падает на неожиданном статус-коде, поэтому неуспешный вывод оставляет в отчёте все открытые шаги
+    public boolean record(String key, boolean success) {
+        if (!isEnabled()) {
+            return true;
+        }
+        Deque<Boolean> open = decisions.get();
+        Boolean step = open.peek();
+        if (!success) {
+            keepOpenSteps(open);
+        }
+        return record(key, step != null ? step : next(key), success);
+    }
+
+    // сбой внутри шага: шаг и его родители остаются в отчёте, иначе сбой пропал бы вместе с ними
+    private static void keepOpenSteps(Deque<Boolean> open) {
+        int depth = open.size();
+        open.clear();
+        for (int i = 0; i < depth; i++) {
+            open.push(true);
+        }
+    }
+
+    private boolean next(String key) {
+        return !isEnabled() || counter(key).calls.getAndIncrement() % sample == 0;
+    }
+
+    private boolean record(String key, boolean sampled, boolean success) {
+        if (!isEnabled()) {
+            return true;
+        }
+        Counter counter = counter(key);
+        if (!success) {
+            counter.failures.increment();
+            return true;
+        }
+        if (sampled) {
+            counter.recorded.increment();
+            return true;
+        }
+        counter.aggregated.increment();
+        return false;
+    }
+
+    private Counter counter(String key) {
+        return counters.computeIfAbsent(key, ignored -> new Counter());
+    }
+
+    // сколько успешных вызовов не записано, а только посчитано
+    public long aggregated(String key) {
+        Counter counter = counters.get(key);
+        return counter == null ? 0 : counter.aggregated.sum();
+    }
+
+    // сервисный метод формирования таблицы по шагам
+    public String statsInfo() {
+        StringBuilder info = new StringBuilder(String.format(
+                "\uD83D\uDD35 Выборочная запись отчёта, 1 из %d (записано успешных / неуспешных / только посчитано):", sample));
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+            Counter counter = entry.getValue();
+            info.append(String.format("%n%7d %5d %9d  %s", counter.recorded.sum(), counter.failures.sum(),
+                    counter.aggregated.sum(), entry.getKey()));
+        }
+        return info.toString();
+    }
+
+    // счётчики одного шага или ключа
+    private static final class Counter {
+        private final AtomicLong calls = new AtomicLong();
+        private final LongAdder recorded = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder aggregated = new LongAdder();
+    }
+}
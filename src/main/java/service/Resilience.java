@@ -0,0 +1,414 @@
+package service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+// общий слой устойчивости для запросов UserAPI/OrderAPI (через ResilienceFilter) и AsyncTransport:
+// повторы только для идемпотентных методов (POST - по явному согласию), экспоненциальная пауза со случайным
+// разбросом, общий бюджет повторов и автомат-предохранитель на каждую ручку.
+// Временным сбоем считаются 502/503/504 и ошибки ввода-вывода; 500 у этого бэкенда - ответ на неверные
+// данные (неизвестный ингредиент), он не повторяется и предохранитель не размыкает. 429 - запрос не обработан,
+// он повторяется для любого метода, включая POST, но предохранитель тоже не размыкает
+public class Resilience {
+    // настройки по умолчанию, переопределяются через -D
+    public static final int MAX_ATTEMPTS = Integer.getInteger("resilience.maxAttempts", 3);
+    public static final long BASE_DELAY_MS = Long.getLong("resilience.baseDelayMs", 100);
+    public static final long MAX_DELAY_MS = Long.getLong("resilience.maxDelayMs", 2_000);
+    // на каждый запрос в бюджет добавляется budgetRatio повтора, но не больше budgetMax
+    public static final double BUDGET_RATIO = Double.parseDouble(System.getProperty("resilience.budgetRatio", "0.1"));
+    public static final int BUDGET_MAX = Integer.getInteger("resilience.budgetMax", 10);
+    // предохранитель размыкается, когда среди последних window вызовов (не меньше minCalls) доля сбоев
+    // не ниже failureRate; через openMs пропускается один пробный вызов
+    public static final int BREAKER_WINDOW = Integer.getInteger("resilience.breaker.window", 20);
+    public static final int BREAKER_MIN_CALLS = Integer.getInteger("resilience.breaker.minCalls", 10);
+    public static final double BREAKER_FAILURE_RATE = Double.parseDouble(System.getProperty("resilience.breaker.failureRate", "0.5"));
+    public static final long BREAKER_OPEN_MS = Long.getLong("resilience.breaker.openMs", 5_000);
+
+    private static final Resilience SHARED = new Resilience(MAX_ATTEMPTS, BASE_DELAY_MS, MAX_DELAY_MS,
+            BUDGET_RATIO, BUDGET_MAX, BREAKER_WINDOW, BREAKER_MIN_CALLS, BREAKER_FAILURE_RATE, BREAKER_OPEN_MS);
+    // согласие на повтор POST действует в потоке вызывающего
+    private static final ThreadLocal<Boolean> RETRY_POST = ThreadLocal.withInitial(() -> false);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (!SHARED.endpoints.isEmpty()) {
+                Log.info(SHARED.statsInfo());
+            }
+        }));
+    }
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final RetryBudget budget;
+    private final int window;
+    private final int minCalls;
+    private final double failureRate;
+    private final long openNanos;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    Resilience(int maxAttempts, long baseDelayMs, long maxDelayMs, double budgetRatio, int budgetMax,
+               int window, int minCalls, double failureRate, long openMs) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.budget = new RetryBudget(budgetRatio, budgetMax);
+        this.window = window;
+        this.minCalls = minCalls;
+        this.failureRate = failureRate;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+    }
+
+    public static Resilience shared() {
+        return SHARED;
+    }
+
+    // выполнение call с разрешением повторять POST, например создание заказа, которое не страшно задвоить
+    public static <T> T retryingPost(Supplier<T> call) {
+        boolean previous = RETRY_POST.get();
+        RETRY_POST.set(true);
+        try {
+            return call.get();
+        } finally {
+            RETRY_POST.set(previous);
+        }
+    }
+
+    // синхронный вызов: паузы между попытками - в потоке вызывающего
+    public <R> R execute(String method, String path, Supplier<R> call, ToIntFunction<R> statusCode) {
+        Endpoint endpoint = endpoint(method, path);
+        boolean retryable = isRetryable(method);
+        budget.deposit();
+        endpoint.calls.increment();
+
+        for (int attempt = 1; ; attempt++) {
+            endpoint.acquire();
+            R result;
+            try {
+                result = call.get();
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    endpoint.onIgnored();
+                    throw e;
+                }
+                endpoint.onFailure();
+                if (!shouldRetry(endpoint, retryable, attempt) || !sleep(backoffMillis(attempt))) {
+                    endpoint.failures.increment();
+                    throw e;
+                }
+                continue;
+            }
+            int code = statusCode.applyAsInt(result);
+            if (!isTransient(code) && !isThrottled(code)) {
+                endpoint.onSuccess();
+                return result;
+            }
+            endpoint.onOutcome(code);
+            // 429 значит, что запрос не обработан, поэтому повторяется для любого метода
+            if (!shouldRetry(endpoint, retryable || isThrottled(code), attempt) || !sleep(backoffMillis(attempt))) {
+                endpoint.failures.increment();
+                return result;
+            }
+        }
+    }
+
+    // асинхронный вызов: следующая попытка планируется через delayedExecutor, поток не блокируется
+    public <R> CompletableFuture<R> executeAsync(String method, String path, Supplier<CompletableFuture<R>> call,
+                                                 ToIntFunction<R> statusCode) {
+        Endpoint endpoint = endpoint(method, path);
+        boolean retryable = isRetryable(method);
+        budget.deposit();
+        endpoint.calls.increment();
+
+        CompletableFuture<R> result = new CompletableFuture<>();
+        attemptAsync(endpoint, retryable, 1, call, statusCode, result);
+        return result;
+    }
+
+    private <R> void attemptAsync(Endpoint endpoint, boolean retryable, int attempt, Supplier<CompletableFuture<R>> call,
+                                  ToIntFunction<R> statusCode, CompletableFuture<R> result) {
+        try {
+            endpoint.acquire();
+        } catch (CircuitOpenException e) {
+            result.completeExceptionally(e);
+            return;
+        }
+        call.get().whenComplete((value, error) -> {
+            Throwable cause = error instanceof CompletionException || error instanceof ExecutionException
+                    ? error.getCause() : error;
+            if (cause != null && !isTransient(cause)) {
+                endpoint.onIgnored();
+                result.completeExceptionally(cause);
+                return;
+            }
+            int code = cause == null ? statusCode.applyAsInt(value) : 0;
+            if (cause == null && !isTransient(code) && !isThrottled(code)) {
+                endpoint.onSuccess();
+                result.complete(value);
+                return;
+            }
+            if (cause == null) {
+                endpoint.onOutcome(code);
+            } else {
+                endpoint.onFailure();
+            }
+            if (shouldRetry(endpoint, retryable || isThrottled(code), attempt)) {
+                CompletableFuture.delayedExecutor(backoffMillis(attempt), TimeUnit.MILLISECONDS)
+                        .execute(() -> attemptAsync(endpoint, retryable, attempt + 1, call, statusCode, result));
+                return;
+            }
+            endpoint.failures.increment();
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    private static boolean isRetryable(String method) {
+        switch (method.toUpperCase()) {
+            case "GET":
+            case "HEAD":
+            case "OPTIONS":
+            case "DELETE":
+                return true;
+            default:
+                return RETRY_POST.get();
+        }
+    }
+
+    static boolean isTransient(int statusCode) {
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    // 429 повторяется после паузы RateLimiter, но предохранитель не размыкает: бэкенд жив, просто просит реже
+    static boolean isThrottled(int statusCode) {
+        return statusCode == 429;
+    }
+
+    // обрыв соединения и таймауты приходят как IOException, иногда обёрнутые
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // повтор возможен, если осталась попытка, предохранитель замкнут и бюджет не исчерпан
+    private boolean shouldRetry(Endpoint endpoint, boolean retryable, int attempt) {
+        if (!retryable || attempt >= maxAttempts || !endpoint.isClosed()) {
+            return false;
+        }
+        if (!budget.tryWithdraw()) {
+            endpoint.budgetDenied.increment();
+            return false;
+        }
+        endpoint.retries.increment();
+        return true;
+    }
+
+    // "полный разброс": случайная пауза от нуля до base * 2^(attempt-1), но не больше maxDelay
+    long backoffMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Endpoint endpoint(String method, String path) {
+        return endpoints.computeIfAbsent(method + " " + path, key -> new Endpoint(key, window, minCalls, failureRate, openNanos));
+    }
+
+    // состояние предохранителя ручки, для проверок и отчёта
+    public String breakerState(String method, String path) {
+        Endpoint endpoint = endpoints.get(method + " " + path);
+        return endpoint == null ? State.CLOSED.name() : endpoint.state().name();
+    }
+
+    public long retries() {
+        long sum = 0;
+        for (Endpoint endpoint : endpoints.values()) {
+            sum += endpoint.retries.sum();
+        }
+        return sum;
+    }
+
+    // сервисный метод формирования таблицы по ручкам
+    public String statsInfo() {
+        StringBuilder info = new StringBuilder("\uD83D\uDD35 Устойчивость запросов (вызовы / повторы / отказано бюджетом / "
+                + "отсечено предохранителем / размыканий / неудач):");
+        for (Endpoint endpoint : new TreeMap<>(endpoints).values()) {
+            info.append(String.format("%n%-28s %6d %6d %6d %6d %4d %6d  %s", endpoint.name,
+                    endpoint.calls.sum(), endpoint.retries.sum(), endpoint.budgetDenied.sum(),
+                    endpoint.shortCircuited.sum(), endpoint.opened.sum(), endpoint.failures.sum(), endpoint.state()));
+        }
+        return info.toString();
+    }
+
+    // предохранитель разомкнут: запрос не отправлялся
+    public static class CircuitOpenException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String endpoint) {
+            super(String.format("Предохранитель ручки %s разомкнут после серии сбоев бэкенда, запрос не отправлен.", endpoint));
+        }
+    }
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // бюджет повторов без блокировок: тысячные доли повтора в AtomicLong
+    private static final class RetryBudget {
+        private final long deposit;
+        private final long max;
+        private final AtomicLong balance;
+
+        private RetryBudget(double ratio, int max) {
+            this.deposit = Math.round(ratio * 1000);
+            this.max = max * 1000L;
+            this.balance = new AtomicLong(this.max);
+        }
+
+        private void deposit() {
+            balance.accumulateAndGet(deposit, (current, added) -> Math.min(max, current + added));
+        }
+
+        private boolean tryWithdraw() {
+            long current;
+            do {
+                current = balance.get();
+                if (current < 1000) {
+                    return false;
+                }
+            } while (!balance.compareAndSet(current, current - 1000));
+            return true;
+        }
+    }
+
+    // счётчики и предохранитель одной ручки; окно последних исходов - кольцевой буфер
+    private static final class Endpoint {
+        private final String name;
+        private final boolean[] outcomes;
+        private final int minCalls;
+        private final double failureRate;
+        private final long openNanos;
+        private int recorded;
+        private int failed;
+        private int next;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private boolean probeInFlight;
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder budgetDenied = new LongAdder();
+        private final LongAdder shortCircuited = new LongAdder();
+        private final LongAdder opened = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Endpoint(String name, int window, int minCalls, double failureRate, long openNanos) {
+            this.name = name;
+            this.outcomes = new boolean[window];
+            this.minCalls = minCalls;
+            this.failureRate = failureRate;
+            this.openNanos = openNanos;
+        }
+
+        // разрешение на попытку; в полуоткрытом состоянии проходит только один пробный вызов
+        private synchronized void acquire() {
+            if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+                state = State.HALF_OPEN;
+                probeInFlight = false;
+            }
+            if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+                shortCircuited.increment();
+                throw new CircuitOpenException(name);
+            }
+            if (state == State.HALF_OPEN) {
+                probeInFlight = true;
+            }
+        }
+
+        private synchronized void onSuccess() {
+            if (state == State.HALF_OPEN) {
+                state = State.CLOSED;
+                recorded = failed = next = 0;
+                Log.info(() -> String.format("\uD83D\uDFE2 Предохранитель ручки %s снова замкнут.", name));
+                return;
+            }
+            record(false);
+        }
+
+        private synchronized void onFailure() {
+            if (state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if (state == State.CLOSED && recorded >= minCalls && failed >= failureRate * recorded) {
+                open();
+            }
+        }
+
+        private void onOutcome(int statusCode) {
+            if (isThrottled(statusCode)) {
+                onIgnored();
+            } else {
+                onFailure();
+            }
+        }
+
+        // исход не про здоровье бэкенда (ошибка в самом вызове, 429): пробный вызов освобождается
+        private synchronized void onIgnored() {
+            probeInFlight = false;
+        }
+
+        private synchronized boolean isClosed() {
+            return state == State.CLOSED;
+        }
+
+        private synchronized State state() {
+            return state;
+        }
+
+        private void record(boolean failure) {
+            if (recorded == outcomes.length) {
+                failed -= outcomes[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            outcomes[next] = failure;
+            failed += failure ? 1 : 0;
+            next = (next + 1) % outcomes.length;
+        }
+
+        private void open() {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            opened.increment();
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Предохранитель ручки %s разомкнут на %d мс.",
+                    name, TimeUnit.NANOSECONDS.toMillis(openNanos)));
+        }
+    }
+}
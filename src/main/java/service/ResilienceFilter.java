@@ -0,0 +1,44 @@
+package service;
+
+import io.restassured.RestAssured;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// фильтр базовой спецификации: повторы и предохранитель Resilience для каждого запроса UserAPI и OrderAPI,
+// каждая попытка ждёт разрешения RateLimiter. Цепочка фильтров после ctx.next() израсходована, поэтому
+// первая попытка идёт по ней, а повторы отправляют запрос заново из той же спецификации
+public class ResilienceFilter implements Filter {
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        String path = Utilities.endpoint(requestSpec.getUserDefinedPath());
+        AtomicBoolean first = new AtomicBoolean(true);
+        return Resilience.shared().execute(requestSpec.getMethod(), path,
+                () -> RateLimiter.shared().execute(path,
+                        () -> buffered(first.getAndSet(false) ? ctx.next(requestSpec, responseSpec) : resend(requestSpec)),
+                        Response::getStatusCode, response -> response.getHeader("Retry-After")),
+                Response::getStatusCode);
+    }
+
+    // тело каждого ответа читается сразу: RestAssured держит непрочитанное тело потоком, и соединение пула
+    // не освобождается, пока его не дочитают - а при выключенном выводе, выборке ReportSampler или
+    // отброшенной перед повтором попытке его не читает никто
+    private static Response buffered(Response response) {
+        response.asByteArray();
+        return response;
+    }
+
+    // повторная отправка без фильтров базовой спецификации: повторы, ожидание разрешений и замер задержки
+    // остаются за исходным вызовом
+    private static Response resend(FilterableRequestSpecification requestSpec) {
+        return RestAssured.given(requestSpec)
+                .noFilters()
+                .request(requestSpec.getMethod(), requestSpec.getUserDefinedPath());
+    }
+}
@@ -0,0 +1,68 @@
+package service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import io.restassured.response.Response;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// тело ответа разбирается один раз: строка и типизированные представления запоминаются на сам Response
+// и живут, пока жив он (ключи слабые). Повторные проверки и вывод берут уже разобранное
+public class ResponseBodies {
+    private static final Gson GSON = new Gson();
+    private static final Map<Response, Parsed> PARSED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private ResponseBodies() {
+    }
+
+    public static String asString(Response response) {
+        return parsed(response).body;
+    }
+
+    public static <T extends TypedResponse> T as(Response response, Class<T> type) {
+        Parsed parsed = parsed(response);
+        // уже разобранный наследник подходит и для базового типа
+        for (Object typed : parsed.typed.values()) {
+            if (type.isInstance(typed)) {
+                return type.cast(typed);
+            }
+        }
+        return type.cast(parsed.typed.computeIfAbsent(type, key -> {
+            T typed = fromJson(parsed.body, type);
+            typed.statusCode = response.getStatusCode();
+            typed.rawBody = parsed.body;
+            return typed;
+        }));
+    }
+
+    // копия ответа с тем же телом (например, выданная кэшем) получает уже разобранные представления оригинала
+    static void shareParsed(Response source, Response copy) {
+        PARSED.put(copy, parsed(source));
+    }
+
+    private static Parsed parsed(Response response) {
+        return PARSED.computeIfAbsent(response, key -> new Parsed(key.asString()));
+    }
+
+    // пустое тело (304) или не-json (html-страница ошибки) дают пустой объект, проверки покажут тело
+    private static <T> T fromJson(String body, Class<T> type) {
+        try {
+            T typed = body == null || body.isBlank() ? null : GSON.fromJson(body, type);
+            return typed != null ? typed : GSON.fromJson("{}", type);
+        } catch (JsonParseException e) {
+            return GSON.fromJson("{}", type);
+        }
+    }
+
+    private static final class Parsed {
+        private final String body;
+        private final Map<Class<?>, Object> typed = new ConcurrentHashMap<>();
+
+        private Parsed(String body) {
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package service;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+// жизненный цикл Allure с выборочной записью шагов: успешный шаг вне выборки ReportSampler
+// после закрытия убирается из родителя вместе с вложенными шагами, упавший остаётся всегда
+public class SampledLifecycle extends AllureLifecycle {
+    private final ReportSampler sampler;
+
+    public SampledLifecycle(AllureResultsWriter writer, ReportSampler sampler) {
+        super(writer);
+        this.sampler = sampler;
+    }
+
+    @Override
+    public void startStep(String parentUuid, String uuid, StepResult result) {
+        super.startStep(parentUuid, uuid, result);
+        // шаг без родителя не открывается, решение для него не нужно
+        if (getCurrentTestCaseOrStep().filter(uuid::equals).isPresent()) {
+            sampler.enterStep(result.getName());
+        }
+    }
+
+    @Override
+    public void stopStep(String uuid) {
+        AtomicReference<StepResult> step = new AtomicReference<>();
+        updateStep(uuid, step::set);
+        super.stopStep(uuid);
+        StepResult result = step.get();
+        if (result == null || sampler.exitStep(result.getName(), result.getStatus() == Status.PASSED)) {
+            return;
+        }
+        Optional<String> parent = getCurrentTestCaseOrStep();
+        if (!parent.isPresent()) {
+            return;
+        }
+        if (parent.equals(getCurrentTestCase())) {
+            updateTestCase(parent.get(), test -> test.getSteps().remove(result));
+        } else {
+            updateStep(parent.get(), parentStep -> parentStep.getSteps().remove(result));
+        }
+    }
+}
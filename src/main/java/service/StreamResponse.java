@@ -0,0 +1,57 @@
+package service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+
+// ответ, тело которого читается потоком: статус и заголовки уже получены, тело - по мере чтения.
+// close() закрывает поток (остаток тела не дочитывается) и пишет полное время запроса в LatencyMetrics
+public class StreamResponse implements AutoCloseable {
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final InputStream body;
+    private final String latencyEndpoint;
+    private final long startNanos;
+
+    StreamResponse(int statusCode, HttpHeaders headers, InputStream body, String latencyEndpoint, long startNanos) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.latencyEndpoint = latencyEndpoint;
+        this.startNanos = startNanos;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public InputStream body() {
+        return body;
+    }
+
+    // тело целиком строкой, для небольших ответов с ошибкой
+    public String asString() {
+        try {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            body.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            LatencyMetrics.record(latencyEndpoint, LatencyMetrics.Phase.TOTAL, System.nanoTime() - startNanos);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// хранилище accessToken/refreshToken по пользователю; токены, которые берут повторно, обновляются в фоне
+// до истечения срока, остальные (пользователь создан и сразу удалён) - только по требованию
+public class TokenManager {
+    // за сколько секунд до истечения accessToken его нужно обновить
+    public static final long REFRESH_AHEAD_SECONDS = Long.getLong("tokens.refreshAheadSeconds", 60);
+
+    // обмен refreshToken на новую пару токенов, обычно запрос к api/auth/token;
+    // вызывается и из фонового потока, поэтому не должен опираться на контекст теста (шаги Allure)
+    @FunctionalInterface
+    public interface Refresher {
+        Tokens refresh(String refreshToken);
+    }
+
+    // пара токенов и момент истечения accessToken
+    public static final class Tokens {
+        private final String accessToken;
+        private final String refreshToken;
+        private final long expiresAtMillis;
+        // токен уже выдавали: следующая выдача означает, что пользователь используется повторно
+        private final AtomicBoolean issued = new AtomicBoolean();
+
+        public Tokens(String accessToken, String refreshToken) {
+            this.accessToken = accessToken;
+            this.refreshToken = refreshToken;
+            this.expiresAtMillis = decodeExpiry(accessToken);
+        }
+
+        public String getAccessToken() {
+            return accessToken;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        private boolean isValidAt(long nowMillis) {
+            return expiresAtMillis - TimeUnit.SECONDS.toMillis(REFRESH_AHEAD_SECONDS) > nowMillis;
+        }
+    }
+
+    private final Refresher refresher;
+    private final ConcurrentHashMap<String, Tokens> tokens = new ConcurrentHashMap<>();
+    // accessToken -> пользователь для всех выданных ему токенов: тест мог взять токен до фонового обновления
+    private final ConcurrentHashMap<String, String> keys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> accessTokens = new ConcurrentHashMap<>();
+    // обновления, которые уже идут: остальные потоки ждут их результата, а не шлют свой запрос
+    private final ConcurrentHashMap<String, CompletableFuture<Tokens>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> scheduled = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TokenManager(Refresher refresher) {
+        this.refresher = refresher;
+    }
+
+    // сохранение токенов пользователя; фоновое обновление планируется только при повторном использовании
+    public void put(String key, String accessToken, String refreshToken) {
+        store(key, new Tokens(accessToken, refreshToken));
+    }
+
+    // действующий accessToken пользователя; null, если токены пользователя неизвестны
+    public String getAccessToken(String key) {
+        Tokens current = tokens.get(key);
+        if (current == null) {
+            return null;
+        }
+        if (current.isValidAt(System.currentTimeMillis())) {
+            if (current.issued.getAndSet(true)) {
+                scheduled.computeIfAbsent(key, ignored -> schedule(key, current));
+            }
+            return current.accessToken;
+        }
+        return refresh(key, true).accessToken;
+    }
+
+    public Tokens getTokens(String key) {
+        return tokens.get(key);
+    }
+
+    // обновление токенов; одновременные вызовы для одного пользователя дают один запрос
+    public Tokens refresh(String key) {
+        return refresh(key, false);
+    }
+
+    private Tokens refresh(String key, boolean onlyIfStale) {
+        CompletableFuture<Tokens> mine = new CompletableFuture<>();
+        CompletableFuture<Tokens> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            Tokens current = tokens.get(key);
+            if (current == null) {
+                throw new IllegalStateException(String.format("Токены пользователя %s неизвестны.", key));
+            }
+            // токены могли обновить, пока этот поток шёл к запросу
+            if (onlyIfStale && current.isValidAt(System.currentTimeMillis())) {
+                mine.complete(current);
+                return current;
+            }
+            Tokens fresh = refresher.refresh(current.refreshToken);
+            store(key, fresh);
+            mine.complete(fresh);
+            return fresh;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void remove(String key) {
+        tokens.remove(key);
+        Set<String> issued = accessTokens.remove(key);
+        if (issued != null) {
+            issued.forEach(accessToken -> keys.remove(accessToken, key));
+        }
+        ScheduledFuture<?> task = scheduled.remove(key);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+
+    // пользователь, которому выдан accessToken (текущий или уже обновлённый); null, если токен неизвестен
+    public String getKey(String accessToken) {
+        return keys.get(accessToken);
+    }
+
+    // удаление по accessToken, когда известен только токен (например, после удаления пользователя)
+    public void removeByAccessToken(String accessToken) {
+        String key = keys.get(accessToken);
+        if (key != null) {
+            remove(key);
+        }
+    }
+
+    // обновление уже планировалось - пользователь используется, новые токены тоже обновляются в фоне
+    private void store(String key, Tokens fresh) {
+        tokens.put(key, fresh);
+        keys.put(fresh.accessToken, key);
+        accessTokens.computeIfAbsent(key, ignored -> ConcurrentHashMap.newKeySet()).add(fresh.accessToken);
+        ScheduledFuture<?> previous = scheduled.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+            fresh.issued.set(true);
+            ScheduledFuture<?> next = schedule(key, fresh);
+            if (next != null) {
+                scheduled.put(key, next);
+            }
+        }
+    }
+
+    // null - токен бессрочный, обновлять нечего
+    private ScheduledFuture<?> schedule(String key, Tokens current) {
+        if (current.expiresAtMillis == Long.MAX_VALUE) {
+            return null;
+        }
+        long delay = current.expiresAtMillis - TimeUnit.SECONDS.toMillis(REFRESH_AHEAD_SECONDS) - System.currentTimeMillis();
+        return scheduler.schedule(() -> refreshInBackground(key), Math.max(delay, 0), TimeUnit.MILLISECONDS);
+    }
+
+    boolean isScheduled(String key) {
+        return scheduled.containsKey(key);
+    }
+
+    private void refreshInBackground(String key) {
+        if (!tokens.containsKey(key)) {
+            return;
+        }
+        try {
+            refresh(key);
+        } catch (RuntimeException e) {
+            // пользователь мог быть удалён, такие токены больше не нужны
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Не удалось обновить токены пользователя %s: %s%n", key, e.getMessage()));
+            remove(key);
+        }
+    }
+
+    // срок действия из поля exp полезной нагрузки JWT; если токен не разобрать, считаем его бессрочным
+    public static long decodeExpiry(String jwt) {
+        try {
+            String[] parts = jwt.split("\\.");
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonElement exp = JsonParser.parseString(payload).getAsJsonObject().get("exp");
+            return exp == null ? Long.MAX_VALUE : TimeUnit.SECONDS.toMillis(exp.getAsLong());
+        } catch (RuntimeException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
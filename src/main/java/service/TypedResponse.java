@@ -0,0 +1,40 @@
+package service;
+
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import static org.junit.Assert.assertEquals;
+
+// общие поля ответов Stellar Burgers и проверки по ним; наследники добавляют поля своих ручек
+@Getter
+public class TypedResponse {
+    private Boolean success;
+    private String message;
+    // заполняются при разборе в ResponseBodies, в json их нет
+    transient int statusCode;
+    transient String rawBody;
+
+    // ответ только с success и message: выход, удаление, ошибки
+    public static TypedResponse of(Response response) {
+        return ResponseBodies.as(response, TypedResponse.class);
+    }
+
+    public void assertStatus(int expectedStatusCode) {
+        assertEquals(describe("Статус-код"), expectedStatusCode, statusCode);
+    }
+
+    public void assertSuccess(int expectedStatusCode, boolean expectedSuccess) {
+        assertStatus(expectedStatusCode);
+        assertEquals(describe("success"), expectedSuccess, success);
+    }
+
+    public void assertMessage(int expectedStatusCode, boolean expectedSuccess, String expectedMessage) {
+        assertSuccess(expectedStatusCode, expectedSuccess);
+        assertEquals(describe("message"), expectedMessage, message);
+    }
+
+    // подпись для сообщения о падении: что проверяли и какое тело пришло
+    protected String describe(String field) {
+        return String.format("%s, тело ответа: %s", field, rawBody);
+    }
+}
@@ -0,0 +1,60 @@
+package service;
+
+import io.restassured.response.Response;
+import lombok.Getter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+// ответы ручек api/auth: регистрация, логин, данные пользователя, обновление токенов
+@Getter
+public class UserResponse extends TypedResponse {
+    private String accessToken;
+    private String refreshToken;
+    private UserData user;
+
+    public static UserResponse of(Response response) {
+        return ResponseBodies.as(response, UserResponse.class);
+    }
+
+    // accessToken без префикса "Bearer "
+    public String getCleanAccessToken() {
+        return accessToken == null ? null : accessToken.substring(7);
+    }
+
+    public String getEmail() {
+        return user == null ? null : user.getEmail();
+    }
+
+    public String getName() {
+        return user == null ? null : user.getName();
+    }
+
+    // успешный ответ с данными ожидаемого пользователя
+    public void assertUser(int expectedStatusCode, User expected) {
+        assertSuccess(expectedStatusCode, true);
+        assertUserData(expected);
+    }
+
+    // то же плюс выданные токены
+    public void assertUserWithTokens(int expectedStatusCode, User expected) {
+        assertUser(expectedStatusCode, expected);
+        assertTokens();
+    }
+
+    public void assertUserData(User expected) {
+        assertEquals(describe("user.email"), expected.getEmail(), getEmail());
+        assertEquals(describe("user.name"), expected.getName(), getName());
+    }
+
+    public void assertTokens() {
+        assertNotNull(describe("accessToken"), accessToken);
+        assertNotNull(describe("refreshToken"), refreshToken);
+    }
+
+    @Getter
+    public static class UserData {
+        private String email;
+        private String name;
+    }
+}
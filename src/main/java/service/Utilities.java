@@ -1,74 +1,101 @@
 package service;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.http.ContentType;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
+import stub.StellarBurgersStub;
+
+import java.util.function.Supplier;
 
 import static io.restassured.RestAssured.given;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
 
 public class Utilities {
-    public static final String BASE_URI = "https://stellarburgers.nomoreparties.site/";
-    public static final RequestSpecification REQUEST = given().baseUri(BASE_URI).contentType(ContentType.JSON);
+    // адрес бэкенда: -Dstellar.baseUri переопределяет его, -Dstellar.stub=true поднимает встроенную заглушку
+    public static final String BASE_URI = Boolean.getBoolean("stellar.stub")
+            ? StellarBurgersStub.shared().baseUri()
+            : System.getProperty("stellar.baseUri", "https://stellarburgers.nomoreparties.site/");
+    // неизменяемая базовая спецификация, её никто не модифицирует напрямую;
+    // фильтры: задержки каждого запроса пишутся в LatencyMetrics (вместе с повторами и ожиданием разрешений,
+    // как их ждёт тест), временные сбои повторяет Resilience, частоту и число запросов ограничивает RateLimiter
+    public static final RequestSpecification BASE_SPEC = new RequestSpecBuilder()
+            .setConfig(HttpTransport.CONFIG)
+            .setBaseUri(BASE_URI)
+            .setContentType(ContentType.JSON)
+            .addFilter(new LatencyFilter())
+            .addFilter(new ResilienceFilter())
+            .build();
 
     public static final String USER_CREATE = "api/auth/register";
     public static final String USER_DELETE = "api/auth/user";
     public static final String USER_LOGIN = "api/auth/login";
     public static final String USER_LOGOUT = "api/auth/logout";
     public static final String USER_DATA = "api/auth/user";
+    public static final String TOKEN_REFRESH = "api/auth/token";
     public static final String ORDER_CREATE = "api/orders";
     public static final String ORDER_GET_ALL = "api/orders/all";
     public static final String GET_INGREDIENTS = "api/ingredients";
 
+    // ключ ручки для RateLimiter и Resilience: путь без ведущего "/" и строки запроса, в том же виде, что константы выше,
+    // чтобы синхронные и асинхронные запросы к одной ручке делили лимиты и предохранитель
+    public static String endpoint (String path) {
+        int query = path.indexOf('?');
+        String endpoint = query < 0 ? path : path.substring(0, query);
+        return endpoint.startsWith("/") ? endpoint.substring(1) : endpoint;
+    }
+
+    // сервисный метод получения новой спецификации на каждый запрос, безопасен для вызова из разных потоков
+    public static RequestSpecification request () {
+        return given().spec(BASE_SPEC);
+    }
+
+    // общий экземпляр для красивого вывода json, Gson потокобезопасен
+    public static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
     // сервисный метод печати информации в зависимости от статус-кода
     public static void printResponseInfo (Response response, int expectedStatusCode, String otherInfo) {
-        // формируем тело ответа
-        String responseBody = response
-                .then()
-                .extract()
-                .body()
-                .asString();
+        printResponseInfo(response, expectedStatusCode, () -> otherInfo);
+    }
+
+    // то же, но дополнительная информация и тело ответа формируются, только если их выведут
+    public static void printResponseInfo (Response response, int expectedStatusCode, Supplier<String> otherInfo) {
         // получаем статус-код
         int actualStatusCode = response.getStatusCode();
+        boolean success = actualStatusCode == expectedStatusCode;
+        // при выборочной записи успешный ответ вне выборки только считается, см. ReportSampler
+        if (!ReportSampler.shared().record("printResponseInfo", success)) {
+            return;
+        }
         // печатаем результат запроса
-        String info = (actualStatusCode == expectedStatusCode)
-                ? String.format("\uD83D\uDFE2 Статус-код: %d.%nУспешный запрос.%n%s", actualStatusCode, otherInfo)
-                : String.format("\uD83D\uDFE1 ВНИМАНИЕ. Статус: %d.%nТело ответа: %s.%nЗапрос некорректный.%n", actualStatusCode, responseBody);
-        System.out.println(info);
+        if (success) {
+            Log.info(() -> String.format("\uD83D\uDFE2 Статус-код: %d.%nУспешный запрос.%n%s", actualStatusCode, otherInfo.get()));
+        } else {
+            Log.warn(() -> String.format("\uD83D\uDFE1 ВНИМАНИЕ. Статус: %d.%nТело ответа: %s.%nЗапрос некорректный.%n",
+                    actualStatusCode, ResponseBodies.asString(response)));
+        }
     }
 
-    // сервисный метод извлечения данных пользователя из тела ответа
+    // сервисный метод извлечения данных пользователя из тела ответа, тело разбирается один раз
     public static String extractUserData (Response response) {
-        // извлекаем емэйл
-        String jsonEmail = response.then().extract().body().path("user.email");
-        // извлекаем имя
-        String jsonName = response.then().extract().body().path("user.name");
+        UserResponse userResponse = UserResponse.of(response);
         // создаём информацию с данными пользователя
-        String extractedInfo = String.format("Данные пользователя:%nemail: %s%nимя: %s%n", jsonEmail, jsonName);
+        String extractedInfo = String.format("Данные пользователя:%nemail: %s%nимя: %s%n", userResponse.getEmail(), userResponse.getName());
 
         return extractedInfo;
     }
 
     // сервисный метод проверки негативного ответа
     public static void checkNegativeResponse(Response response, int statusCode, boolean successKeyValue, String messageKeyValue) {
-        response.then()
-                .assertThat()
-                .statusCode(statusCode)
-                .body("success", equalTo(successKeyValue),
-                        "message", equalTo(messageKeyValue));
+        TypedResponse.of(response).assertMessage(statusCode, successKeyValue, messageKeyValue);
     }
 
     // сервисный метод проверки позитивного ответа с юзером
     public static void checkUserPositiveResponse (Response response, User user, int statusCode, boolean successKeyValue) {
-        response.then()
-                .assertThat()
-                .statusCode(statusCode)
-                .body("success", equalTo(successKeyValue),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName()),
-                        "accessToken", notNullValue(),
-                        "refreshToken", notNullValue()
-                );
+        UserResponse userResponse = UserResponse.of(response);
+        userResponse.assertSuccess(statusCode, successKeyValue);
+        userResponse.assertUserData(user);
+        userResponse.assertTokens();
     }
 }
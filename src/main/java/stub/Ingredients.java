@@ -0,0 +1,41 @@
+package stub;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// каталог ингредиентов заглушки, айди совпадают с настоящим бэкендом
+class Ingredients {
+
+    private Ingredients() {
+    }
+
+    static Map<String, Map<String, Object>> byId() {
+        Map<String, Map<String, Object>> catalog = new LinkedHashMap<>();
+        add(catalog, "61c0c5a71d1f82001bdaaa6d", "Флюоресцентная булка R2-D3", "bun", 44, 26, 85, 643, 988, "bun-01");
+        add(catalog, "61c0c5a71d1f82001bdaaa6c", "Краторная булка N-200i", "bun", 80, 24, 53, 420, 1255, "bun-02");
+        add(catalog, "61c0c5a71d1f82001bdaaa6f", "Мясо бессмертных моллюсков Protostomia", "main", 433, 244, 33, 420, 1337, "meat-02");
+        add(catalog, "61c0c5a71d1f82001bdaaa6e", "Биокотлета из марсианской Магнолии", "main", 420, 142, 242, 4242, 424, "meat-01");
+        add(catalog, "61c0c5a71d1f82001bdaaa72", "Соус Spicy-X", "sauce", 30, 20, 40, 30, 90, "sauce-02");
+        add(catalog, "61c0c5a71d1f82001bdaaa73", "Соус фирменный Space Sauce", "sauce", 50, 22, 11, 14, 80, "sauce-04");
+        return Collections.unmodifiableMap(catalog);
+    }
+
+    private static void add(Map<String, Map<String, Object>> catalog, String id, String name, String type,
+                            int proteins, int fat, int carbohydrates, int calories, int price, String image) {
+        Map<String, Object> ingredient = new LinkedHashMap<>();
+        ingredient.put("_id", id);
+        ingredient.put("name", name);
+        ingredient.put("type", type);
+        ingredient.put("proteins", proteins);
+        ingredient.put("fat", fat);
+        ingredient.put("carbohydrates", carbohydrates);
+        ingredient.put("calories", calories);
+        ingredient.put("price", price);
+        ingredient.put("image", String.format("https://code.s3.yandex.net/react/code/%s.png", image));
+        ingredient.put("image_mobile", String.format("https://code.s3.yandex.net/react/code/%s-mobile.png", image));
+        ingredient.put("image_large", String.format("https://code.s3.yandex.net/react/code/%s-large.png", image));
+        ingredient.put("__v", 0);
+        catalog.put(id, Collections.unmodifiableMap(ingredient));
+    }
+}
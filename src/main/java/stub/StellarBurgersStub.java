@@ -0,0 +1,527 @@
+package stub;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// встроенная заглушка бэкенда Stellar Burgers на JDK HttpServer:
+// реализует ручки, которые проверяют тесты, хранит данные в памяти и умеет добавлять задержку и ошибки
+public class StellarBurgersStub {
+    // время жизни accessToken, как у настоящего бэкенда
+    private static final long ACCESS_TOKEN_TTL_SECONDS = TimeUnit.MINUTES.toSeconds(20);
+    private static final int FEED_SIZE = 50;
+    private static final Gson GSON = new Gson();
+
+    private static volatile StellarBurgersStub shared;
+
+    static {
+        // без TCP_NODELAY ответ, записанный в сокет двумя частями (заголовки и тело), ждёт отложенного ACK клиента:
+        // на loopback это около 40 мс на каждый запрос. Настройка читается при создании первого HttpServer
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    // состояние заглушки
+    private final Map<String, StubUser> usersByEmail = new ConcurrentHashMap<>();
+    private final Map<String, String> emailByAccessToken = new ConcurrentHashMap<>();
+    private final Map<String, String> emailByRefreshToken = new ConcurrentHashMap<>();
+    private final Deque<Map<String, Object>> orders = new ConcurrentLinkedDeque<>();
+    private final Map<String, Deque<Map<String, Object>>> ordersByEmail = new ConcurrentHashMap<>();
+    private final AtomicInteger orderNumber = new AtomicInteger(10_000);
+    private final AtomicInteger ordersToday = new AtomicInteger();
+    private final Map<String, Map<String, Object>> ingredients = Ingredients.byId();
+    private final String ingredientsBody;
+    private final String ingredientsETag;
+
+    // задержка и доля ответов 503, можно менять на лету
+    private volatile long latencyMs = Long.getLong("stub.latencyMs", 0);
+    private volatile long jitterMs = Long.getLong("stub.jitterMs", 0);
+    private volatile double errorRate = Double.parseDouble(System.getProperty("stub.errorRate", "0"));
+    // сколько следующих запросов подряд получат 503, для проверок повторов
+    private final AtomicInteger failNext = new AtomicInteger();
+
+    public StellarBurgersStub(int port) throws IOException {
+        Map<String, Object> catalog = new LinkedHashMap<>();
+        catalog.put("success", true);
+        catalog.put("data", new ArrayList<>(ingredients.values()));
+        ingredientsBody = GSON.toJson(catalog);
+        ingredientsETag = String.format("\"%08x\"", ingredientsBody.hashCode());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stellar-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    // общая заглушка процесса, запускается при первом обращении на порту -Dstub.port (0 - любой свободный)
+    public static StellarBurgersStub shared() {
+        if (shared == null) {
+            synchronized (StellarBurgersStub.class) {
+                if (shared == null) {
+                    try {
+                        StellarBurgersStub stub = new StellarBurgersStub(Integer.getInteger("stub.port", 0));
+                        stub.start();
+                        shared = stub;
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Заглушка Stellar Burgers не запустилась.", e);
+                    }
+                }
+            }
+        }
+        return shared;
+    }
+
+    public StellarBurgersStub start() {
+        server.start();
+        return this;
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // адрес в том же виде, что и Utilities.BASE_URI
+    public String baseUri() {
+        return String.format("http://127.0.0.1:%d/", server.getAddress().getPort());
+    }
+
+    public void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public void failNext(int requests) {
+        failNext.set(requests);
+    }
+
+    public int userCount() {
+        return usersByEmail.size();
+    }
+
+    // маршрутизация запросов
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            injectLatency();
+            if (failNext.getAndUpdate(left -> Math.max(0, left - 1)) > 0
+                    || errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                send(exchange, 503, error("Service temporarily unavailable"));
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            switch (method + " " + path) {
+                case "POST /api/auth/register":
+                    register(exchange);
+                    break;
+                case "POST /api/auth/login":
+                    login(exchange);
+                    break;
+                case "POST /api/auth/logout":
+                    logout(exchange);
+                    break;
+                case "POST /api/auth/token":
+                    refreshToken(exchange);
+                    break;
+                case "GET /api/auth/user":
+                    getUser(exchange);
+                    break;
+                case "PATCH /api/auth/user":
+                    patchUser(exchange);
+                    break;
+                case "DELETE /api/auth/user":
+                    deleteUser(exchange);
+                    break;
+                case "GET /api/ingredients":
+                    getIngredients(exchange);
+                    break;
+                case "POST /api/orders":
+                    createOrder(exchange);
+                    break;
+                case "GET /api/orders":
+                    getUserOrders(exchange);
+                    break;
+                case "GET /api/orders/all":
+                    getAllOrders(exchange);
+                    break;
+                default:
+                    send(exchange, 404, error("Not found"));
+            }
+        } catch (RuntimeException e) {
+            send(exchange, 500, error(e.toString()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void register(HttpExchange exchange) throws IOException {
+        JsonObject body = readBody(exchange);
+        String email = string(body, "email");
+        String password = string(body, "password");
+        String name = string(body, "name");
+        if (isBlank(email) || isBlank(password) || isBlank(name)) {
+            send(exchange, 403, error("Email, password and name are required fields"));
+            return;
+        }
+        StubUser user = new StubUser(email, password, name);
+        if (usersByEmail.putIfAbsent(email, user) != null) {
+            send(exchange, 403, error("User already exists"));
+            return;
+        }
+        send(exchange, 200, authResponse(user));
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        JsonObject body = readBody(exchange);
+        String email = string(body, "email");
+        StubUser user = email == null ? null : usersByEmail.get(email);
+        if (user == null || !user.password.equals(string(body, "password"))) {
+            send(exchange, 401, error("email or password are incorrect"));
+            return;
+        }
+        send(exchange, 200, authResponse(user));
+    }
+
+    private void logout(HttpExchange exchange) throws IOException {
+        String token = string(readBody(exchange), "token");
+        if (token == null || emailByRefreshToken.remove(token) == null) {
+            send(exchange, 404, error("Token required"));
+            return;
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("message", "Successful logout");
+        send(exchange, 200, response);
+    }
+
+    private void refreshToken(HttpExchange exchange) throws IOException {
+        String token = string(readBody(exchange), "token");
+        String email = token == null ? null : emailByRefreshToken.remove(token);
+        StubUser user = email == null ? null : usersByEmail.get(email);
+        if (user == null) {
+            send(exchange, 401, error("Token is invalid"));
+            return;
+        }
+        Map<String, Object> response = authResponse(user);
+        response.remove("user");
+        send(exchange, 200, response);
+    }
+
+    private void getUser(HttpExchange exchange) throws IOException {
+        StubUser user = authorise(exchange);
+        if (user == null) {
+            return;
+        }
+        send(exchange, 200, userResponse(user));
+    }
+
+    private void patchUser(HttpExchange exchange) throws IOException {
+        StubUser user = authorise(exchange);
+        if (user == null) {
+            return;
+        }
+        JsonObject body = readBody(exchange);
+        synchronized (user) {
+            String email = string(body, "email");
+            if (!isBlank(email) && !email.equals(user.email)) {
+                if (usersByEmail.putIfAbsent(email, user) != null) {
+                    send(exchange, 403, error("User with such email already exists"));
+                    return;
+                }
+                usersByEmail.remove(user.email);
+                emailByAccessToken.replaceAll((token, owner) -> owner.equals(user.email) ? email : owner);
+                emailByRefreshToken.replaceAll((token, owner) -> owner.equals(user.email) ? email : owner);
+                Deque<Map<String, Object>> userOrders = ordersByEmail.remove(user.email);
+                if (userOrders != null) {
+                    ordersByEmail.put(email, userOrders);
+                }
+                user.email = email;
+            }
+            if (!isBlank(string(body, "name"))) {
+                user.name = string(body, "name");
+            }
+            if (!isBlank(string(body, "password"))) {
+                user.password = string(body, "password");
+            }
+        }
+        send(exchange, 200, userResponse(user));
+    }
+
+    private void deleteUser(HttpExchange exchange) throws IOException {
+        StubUser user = authorise(exchange);
+        if (user == null) {
+            return;
+        }
+        usersByEmail.remove(user.email, user);
+        emailByAccessToken.values().removeIf(user.email::equals);
+        emailByRefreshToken.values().removeIf(user.email::equals);
+        ordersByEmail.remove(user.email);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("message", "User successfully removed");
+        send(exchange, 202, response);
+    }
+
+    private void getIngredients(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("ETag", ingredientsETag);
+        if (ingredientsETag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+        sendRaw(exchange, 200, ingredientsBody);
+    }
+
+    private void createOrder(HttpExchange exchange) throws IOException {
+        JsonObject body = readBody(exchange);
+        List<String> ids = new ArrayList<>();
+        if (body.has("ingredients") && body.get("ingredients").isJsonArray()) {
+            body.getAsJsonArray("ingredients").forEach(id -> ids.add(id.getAsString()));
+        }
+        if (ids.isEmpty()) {
+            send(exchange, 400, error("Ingredient ids must be provided"));
+            return;
+        }
+        for (String id : ids) {
+            if (!ingredients.containsKey(id)) {
+                // настоящий бэкенд отвечает на неизвестный айди страницей ошибки 500
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                sendRaw(exchange, 500, "Internal Server Error");
+                return;
+            }
+        }
+
+        String now = Instant.now().toString();
+        String burgerName = "Космический бургер";
+        int number = orderNumber.incrementAndGet();
+        ordersToday.incrementAndGet();
+
+        // запись для лент заказов: ингредиенты хранятся айдишниками
+        Map<String, Object> feedOrder = new LinkedHashMap<>();
+        feedOrder.put("_id", UUID.randomUUID().toString().replace("-", "").substring(0, 24));
+        feedOrder.put("ingredients", ids);
+        feedOrder.put("status", "done");
+        feedOrder.put("name", burgerName);
+        feedOrder.put("createdAt", now);
+        feedOrder.put("updatedAt", now);
+        feedOrder.put("number", number);
+        orders.addFirst(feedOrder);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("name", burgerName);
+
+        StubUser user = userFromToken(exchange);
+        Map<String, Object> order = new LinkedHashMap<>();
+        if (user == null) {
+            order.put("number", number);
+        } else {
+            ordersByEmail.computeIfAbsent(user.email, email -> new ConcurrentLinkedDeque<>()).addFirst(feedOrder);
+            List<Map<String, Object>> fullIngredients = new ArrayList<>();
+            int price = 0;
+            for (String id : ids) {
+                Map<String, Object> ingredient = ingredients.get(id);
+                fullIngredients.add(ingredient);
+                price += ((Number) ingredient.get("price")).intValue();
+            }
+            Map<String, Object> owner = new LinkedHashMap<>();
+            owner.put("name", user.name);
+            owner.put("email", user.email);
+            owner.put("createdAt", user.createdAt);
+            owner.put("updatedAt", user.createdAt);
+            order.put("ingredients", fullIngredients);
+            order.put("_id", feedOrder.get("_id"));
+            order.put("owner", owner);
+            order.put("status", "done");
+            order.put("name", burgerName);
+            order.put("createdAt", now);
+            order.put("updatedAt", now);
+            order.put("number", number);
+            order.put("price", price);
+        }
+        response.put("order", order);
+        send(exchange, 200, response);
+    }
+
+    private void getUserOrders(HttpExchange exchange) throws IOException {
+        StubUser user = authorise(exchange);
+        if (user == null) {
+            return;
+        }
+        List<Map<String, Object>> userOrders = new ArrayList<>(ordersByEmail.getOrDefault(user.email, new ConcurrentLinkedDeque<>()));
+        // в ленте пользователя заказы от старых к новым, как у настоящего бэкенда
+        Collections.reverse(userOrders);
+        send(exchange, 200, feed(userOrders, userOrders.size()));
+    }
+
+    private void getAllOrders(HttpExchange exchange) throws IOException {
+        List<Map<String, Object>> latest = new ArrayList<>(FEED_SIZE);
+        for (Map<String, Object> order : orders) {
+            if (latest.size() == FEED_SIZE) {
+                break;
+            }
+            latest.add(order);
+        }
+        send(exchange, 200, feed(latest, orders.size()));
+    }
+
+    private Map<String, Object> feed(List<Map<String, Object>> feedOrders, int total) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("orders", feedOrders);
+        response.put("total", total);
+        response.put("totalToday", ordersToday.get());
+        return response;
+    }
+
+    // пользователь по заголовку Authorization; при отсутствии - ответ 401 и null
+    private StubUser authorise(HttpExchange exchange) throws IOException {
+        StubUser user = userFromToken(exchange);
+        if (user == null) {
+            send(exchange, 401, error("You should be authorised"));
+        }
+        return user;
+    }
+
+    private StubUser userFromToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            return null;
+        }
+        String email = emailByAccessToken.get(header.substring(7));
+        return email == null ? null : usersByEmail.get(email);
+    }
+
+    // ответ на регистрацию и логин: новая пара токенов
+    private Map<String, Object> authResponse(StubUser user) {
+        String accessToken = accessToken(user);
+        String refreshToken = UUID.randomUUID().toString().replace("-", "") + UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        emailByAccessToken.put(accessToken, user.email);
+        emailByRefreshToken.put(refreshToken, user.email);
+
+        Map<String, Object> response = userResponse(user);
+        response.put("accessToken", "Bearer " + accessToken);
+        response.put("refreshToken", refreshToken);
+        return response;
+    }
+
+    private static Map<String, Object> userResponse(StubUser user) {
+        Map<String, Object> userInfo = new LinkedHashMap<>();
+        userInfo.put("email", user.email);
+        userInfo.put("name", user.name);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", true);
+        response.put("user", userInfo);
+        return response;
+    }
+
+    // JWT без настоящей подписи, но с полем exp - его читает TokenManager
+    private static String accessToken(StubUser user) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long now = Instant.now().getEpochSecond();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(String.format("{\"id\":\"%s\",\"jti\":\"%s\",\"iat\":%d,\"exp\":%d}",
+                user.id, UUID.randomUUID(), now, now + ACCESS_TOKEN_TTL_SECONDS).getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".stub";
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return response;
+    }
+
+    private void injectLatency() {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static JsonObject readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            String json = new String(body.readAllBytes(), StandardCharsets.UTF_8);
+            return json.isBlank() ? new JsonObject() : JsonParser.parseString(json).getAsJsonObject();
+        }
+    }
+
+    private static String string(JsonObject body, String field) {
+        return body.has(field) && !body.get(field).isJsonNull() ? body.get(field).getAsString() : null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static void send(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        sendRaw(exchange, status, GSON.toJson(body));
+    }
+
+    private static void sendRaw(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("Content-Type")) {
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // пользователь заглушки
+    private static final class StubUser {
+        private final String id = UUID.randomUUID().toString().replace("-", "").substring(0, 24);
+        private final String createdAt = Instant.now().toString();
+        private volatile String email;
+        private volatile String password;
+        private volatile String name;
+
+        private StubUser(String email, String password, String name) {
+            this.email = email;
+            this.password = password;
+            this.name = name;
+        }
+    }
+}
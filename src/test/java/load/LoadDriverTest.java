@@ -0,0 +1,127 @@
+package load;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.HttpTransport;
+import stub.StellarBurgersStub;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.http.HttpStatus.SC_NOT_FOUND;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static service.Utilities.GET_INGREDIENTS;
+
+public class LoadDriverTest {
+    private static StellarBurgersStub stub;
+
+    @BeforeClass
+    public static void startStub () throws IOException {
+        stub = new StellarBurgersStub(0).start();
+    }
+
+    @AfterClass
+    public static void stopStub () {
+        stub.stop();
+    }
+
+    // сервисный метод: запрос в отдельную заглушку без фильтров базовой спецификации - общий RateLimiter
+    // делят классы, которые surefire гоняет одновременно, а здесь проверяется только темп самого генератора
+    private static Response get(String path) {
+        return RestAssured.given().config(HttpTransport.CONFIG).baseUri(stub.baseUri()).get(path);
+    }
+
+    private static Step ingredients() {
+        return new Step("getIngredients", SC_OK, session -> get(GET_INGREDIENTS));
+    }
+
+    @Test
+    public void closedModeRunsScenariosUntilDeadlineTest () throws InterruptedException {
+        // второй шаг ждёт не тот статус-код: сценарий считается упавшим, третий шаг не выполняется
+        LoadDriver driver = new LoadDriver(Collections.singletonList(new Scenario("broken", 1,
+                ingredients(),
+                new Step("unexpectedStatus", SC_NOT_FOUND, session -> get(GET_INGREDIENTS)),
+                new Step("neverRun", SC_OK, session -> get(GET_INGREDIENTS)))));
+
+        driver.runClosed(2, 1);
+
+        long scenarios = driver.getScenarioStats().count("broken");
+        assertTrue(scenarios > 0);
+        assertEquals(scenarios, driver.getScenarioStats().errors("broken"));
+        assertEquals(scenarios, driver.getStepStats().count("getIngredients"));
+        assertEquals(0, driver.getStepStats().errors("getIngredients"));
+        assertEquals(scenarios, driver.getStepStats().errors("unexpectedStatus"));
+        assertEquals(0, driver.getStepStats().count("neverRun"));
+    }
+
+    @Test
+    public void openModeStartsScenariosAtFixedRateTest () throws InterruptedException {
+        LoadDriver driver = new LoadDriver(Collections.singletonList(new Scenario("browse", 1, ingredients())));
+
+        // 20 запусков в секунду в течение секунды - ровно 20 запланированных запусков
+        driver.runOpen(20, 100, 1);
+
+        assertEquals(20, driver.getScenarioStats().count("browse"));
+        assertEquals(0, driver.getScenarioStats().errors("browse"));
+        assertEquals(0, driver.getDropped());
+        assertEquals(0, driver.getCutOff());
+    }
+
+    @Test
+    public void openModeDropsStartsAboveMaxInFlightTest () throws InterruptedException {
+        LoadDriver driver = new LoadDriver(Collections.singletonList(new Scenario("slow", 1,
+                new Step("sleep", SC_OK, session -> {
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return get(GET_INGREDIENTS);
+                }))));
+
+        driver.runOpen(20, 1, 1);
+
+        // каждый запуск либо выполнен, либо пропущен из-за предела одновременных сценариев
+        assertTrue(driver.getDropped() > 0);
+        assertEquals(20, driver.getScenarioStats().count("slow") + driver.getDropped());
+    }
+
+    @Test
+    public void scenariosStillRunningAfterDrainAreCutOffTest () throws InterruptedException {
+        LoadDriver driver = new LoadDriver(Collections.singletonList(new Scenario("hanging", 1,
+                new Step("hang", SC_OK, session -> {
+                    try {
+                        Thread.sleep(30_000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(e);
+                    }
+                    return get(GET_INGREDIENTS);
+                }))), 1);
+
+        long started = System.nanoTime();
+        driver.runOpen(2, 10, 1);
+
+        // оба запуска не уложились в секунду ожидания и прерваны, генератор не ждал их 30 секунд
+        assertEquals(2, driver.getCutOff());
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(10));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openModeRejectsRateAboveOnePerNanosecondTest () throws InterruptedException {
+        new LoadDriver(Collections.singletonList(new Scenario("browse", 1, ingredients())))
+                .runOpen(Integer.MAX_VALUE, 100, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void openModeRejectsZeroRateTest () throws InterruptedException {
+        new LoadDriver(Collections.singletonList(new Scenario("browse", 1, ingredients())))
+                .runOpen(0, 100, 1);
+    }
+}
@@ -0,0 +1,100 @@
+package order;
+
+import api.AsyncOrderAPI;
+import api.AsyncUserAPI;
+import io.qameta.allure.Description;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.ApiResponse;
+import service.Order;
+import service.User;
+import stub.StellarBurgersStub;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.apache.http.HttpStatus.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// асинхронный клиент против отдельной заглушки: ответы не проходят через фильтры RestAssured
+public class AsyncOrderAPITest {
+    private static StellarBurgersStub stub;
+    private static AsyncOrderAPI asyncOrderAPI;
+
+    @BeforeClass
+    public static void startStub () throws IOException {
+        stub = new StellarBurgersStub(0).start();
+        asyncOrderAPI = new AsyncOrderAPI(stub.baseUri());
+    }
+
+    @AfterClass
+    public static void stopStub () {
+        stub.stop();
+    }
+
+    @Test
+    @DisplayName("Тест асинхронного создания заказа авторизованным пользователем.")
+    @Description("Проверяется, что асинхронный клиент получает ингредиенты, создаёт заказ и видит его в списке заказов пользователя.")
+    public void orderCreatedForUserTest () {
+        AsyncUserAPI asyncUserAPI = new AsyncUserAPI(stub.baseUri());
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        ApiResponse created = asyncUserAPI.userCreating(new User("async-" + id + "@stellar-test.ru", "pwd-" + id, "async-" + id)).join();
+        String accessToken = AsyncUserAPI.getAccessToken(created);
+
+        ApiResponse ingredients = asyncOrderAPI.getIngredients().join();
+        assertEquals(SC_OK, ingredients.getStatusCode());
+        String ingredient = AsyncOrderAPI.getIngredientId(ingredients, 0);
+        assertNotNull(ingredient);
+
+        ApiResponse order = asyncOrderAPI.orderCreateForUser(new Order(Collections.singletonList(ingredient)), accessToken).join();
+        assertEquals(SC_OK, order.getStatusCode());
+        Integer number = order.path("order.number");
+        assertNotNull(number);
+
+        ApiResponse userOrders = asyncOrderAPI.getUserOrderList(accessToken).join();
+        assertEquals(SC_OK, userOrders.getStatusCode());
+        List<Integer> numbers = userOrders.path("orders.number");
+        assertTrue(String.valueOf(numbers), numbers.contains(number));
+
+        assertEquals(SC_ACCEPTED, asyncUserAPI.deleteUser(accessToken).join().getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Тест ответа с ошибкой в асинхронном клиенте.")
+    @Description("Проверяется, что ответ не 200 возвращается вызывающему как есть, а не исключением.")
+    public void errorResponseIsReturnedAsIsTest () {
+        ApiResponse order = asyncOrderAPI.orderCreateWithoutUser(new Order(Collections.emptyList())).join();
+
+        assertEquals(SC_BAD_REQUEST, order.getStatusCode());
+        assertEquals(false, order.path("success"));
+        assertEquals("Ingredient ids must be provided", order.path("message"));
+    }
+
+    @Test
+    @DisplayName("Тест недоступного бэкенда в асинхронном клиенте.")
+    @Description("Проверяется, что ошибка соединения после всех повторов завершает CompletableFuture исключением ввода-вывода.")
+    public void connectFailureCompletesExceptionallyTest () throws IOException {
+        String closedPortUri;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPortUri = "http://127.0.0.1:" + socket.getLocalPort() + "/";
+        }
+        AsyncOrderAPI unreachable = new AsyncOrderAPI(closedPortUri);
+
+        try {
+            // GET повторяется Resilience, исключение приходит после последней попытки
+            unreachable.getAllOrdersList().join();
+            fail("запрос к закрытому порту завершился без ошибки");
+        } catch (CompletionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+        }
+    }
+}
@@ -1,32 +1,35 @@
 package order;
 
 import api.OrderAPI;
-import api.UserAPI;
+import api.UserPool;
 import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
-import net.datafaker.Faker;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import runner.VirtualThreadRunner;
+import service.Log;
 import service.Order;
+import service.OrderResponse;
+import service.OrderStore;
 import service.User;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import static org.apache.http.HttpStatus.SC_ACCEPTED;
-import static org.apache.http.HttpStatus.SC_OK;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
-import static service.Utilities.checkUserPositiveResponse;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+@RunWith(VirtualThreadRunner.class)
 public class GetOrderListTest {
     // поля класса
     private Order order;
     private OrderAPI orderAPI;
-    private UserAPI userAPI;
-    private Faker faker;
+    private UserPool.Lease lease;
     private List<String> ingredientsList;
 
     private String accessToken;
@@ -35,33 +38,22 @@ public class GetOrderListTest {
 
     @Before
     public void setUp () {
-        /// Создание пользователя и получение токена.
-        // задали фейковые данные
-        faker = new Faker();
-        String userEmail = faker.internet().emailAddress();
-        String userPassword = faker.internet().password();
-        String userName = faker.name().username();
-        // json с пользователем
-        user = new User(userEmail, userPassword, userName);
-        // создали пользователя в системе
-        userAPI = new UserAPI();
-        Response userCreatingResponse = userAPI.userCreating(user);
-        // проверили статус и тело ответа
-        checkUserPositiveResponse(userCreatingResponse, user, SC_OK, true);
-        // получили accessToken
-        accessToken = userAPI.getAccessToken(userCreatingResponse);
+        /// Получение авторизованного пользователя из пула.
+        lease = UserPool.shared().lease();
+        user = lease.getUser();
+        accessToken = lease.getAccessToken();
 
         /// Создание тела запроса для формирования заказа.
         // создали список ингредиентов
         orderAPI = new OrderAPI();
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
         ingredient = orderAPI.getIngredientId(orderAPI.getIngredients(), 0);
-        System.out.println(String.format("\uD83D\uDD35 В список добавляется ингредиент \"%s\".", ingredient));
+        Log.info(String.format("\uD83D\uDD35 В список добавляется ингредиент \"%s\".", ingredient));
         ingredientsList.add(ingredient);
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
     }
 
     @Test
@@ -71,27 +63,22 @@ public class GetOrderListTest {
         /// Формируется заказ с привязкой к созданному пользователю.
         Response orderCreateForUserResponse = orderAPI.orderCreateForUser(order, user, accessToken);
         // проверяем ответ
-        orderCreateForUserResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "name", notNullValue(),
-                        "order.ingredients[0]._id", equalTo(order.getIngredients().get(0)),
-                        "order.owner.name", equalTo(user.getName()),
-                        "order.owner.email", equalTo(user.getEmail())
-                );
+        OrderResponse.of(orderCreateForUserResponse).assertCreatedFor(user, order.getIngredients().get(0));
 
         /// Запрос получения списка заказов пользователя.
         Response getUserOrderListResponse = orderAPI.getUserOrderList(accessToken);
         // проверяем ответ
-        getUserOrderListResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "orders[0]._id", notNullValue(),
-                        "orders[0].ingredients", notNullValue()
-                );
+        OrderResponse.of(getUserOrderListResponse).assertOrderList();
 
         /// Формируется читаемый json с заказами пользователя.
         orderAPI.extractAllUserOrders(getUserOrderListResponse);
+
+        /// Созданный заказ находится в индексе заказов пользователя по номеру и по ингредиенту.
+        int orderNumber = orderCreateForUserResponse.path("order.number");
+        OrderStore userOrders = orderAPI.indexOrders(getUserOrderListResponse);
+        OrderResponse.OrderData createdOrder = userOrders.byNumber(orderNumber);
+        assertNotNull(createdOrder);
+        assertTrue(userOrders.withIngredient(ingredient).contains(createdOrder));
     }
 
     @Test
@@ -101,37 +88,29 @@ public class GetOrderListTest {
         /// Формируется заказ без авторизации.
         Response orderCreateWithoutUserResponse = orderAPI.orderCreateWithoutUser(order);
         // проверяем ответ
-        orderCreateWithoutUserResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "name", notNullValue(),
-                        "order.number", notNullValue()
-                );
+        OrderResponse.of(orderCreateWithoutUserResponse).assertCreated();
 
         /// Запрос на получение списка ВСЕХ заказов из БД.
         Response getAllOrdersListResponse = orderAPI.getAllOrdersList();
         // проверяем ответ, что он содержит айди заказа и ингредиенты
-        getAllOrdersListResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "orders[0]._id", notNullValue(),
-                        "orders[0].ingredients", notNullValue()
-                );
+        OrderResponse.of(getAllOrdersListResponse).assertOrderList();
 
         /// Формируется читаемый json с ограниченной ВЫБОРКОЙ заказов.
         // для вывода большего числа заказов достаточно поменять второй индекс в большую сторону
         Response allOrdersResponse = orderAPI.getRequiredListOfOrdersFromDB(getAllOrdersListResponse, 0, 2);
+
+        /// Та же выборка потоковым чтением ленты: разбираются только первые два заказа.
+        List<Map<String, Object>> streamedOrders = orderAPI.streamRequiredListOfOrdersFromDB(0, 2);
+        // созданный выше заказ уже в ленте, значит выборка не пустая
+        assertFalse(streamedOrders.isEmpty());
+        assertTrue(streamedOrders.size() <= 2);
+        for (Map<String, Object> streamedOrder : streamedOrders) {
+            assertNotNull(streamedOrder.get("_id"));
+        }
     }
 
-    @After /// Удаляем пользователя
+    @After /// Возвращаем пользователя в пул
     public void postconditions () {
-        Response deleteUserResponse = userAPI.deleteUser(accessToken);
-        // проверка статуса и тела ответа
-        deleteUserResponse.then().assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+        lease.close();
     }
 }
@@ -0,0 +1,91 @@
+package order;
+
+import api.OrderAPI;
+import api.OrderBatch;
+import api.UserPool;
+import io.qameta.allure.Description;
+import io.qameta.allure.junit4.DisplayName;
+import io.restassured.response.Response;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import runner.VirtualThreadRunner;
+import service.Order;
+import service.OrderResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(VirtualThreadRunner.class)
+public class OrderCreateBatchTest {
+    // поля класса
+    private static OrderAPI orderAPI = new OrderAPI();
+    private UserPool.Lease lease;
+    private String ingredient;
+
+    @Before
+    public void setUp () {
+        /// Получение авторизованного пользователя из пула и реального ингредиента.
+        lease = UserPool.shared().lease();
+        ingredient = OrderAPI.getIngredientId(orderAPI.getIngredients(), 0);
+    }
+
+    // сервисный метод формирования списка одинаковых заказов
+    private List<Order> orders (List<String> ingredients, int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            orders.add(new Order(ingredients));
+        }
+        return orders;
+    }
+
+    @Test
+    @DisplayName("Тест пакетного создания заказов авторизованным пользователем.")
+    @Description("Проверяется, что все заказы пакета созданы, номера уникальны и заказы видны в списке заказов пользователя.")
+    public void orderCreateBatchForUserTest () {
+        /// Создание пакета заказов.
+        OrderBatch.Result result = orderAPI.orderCreateBatch(orders(Collections.singletonList(ingredient), 20), lease.getAccessToken(), 4);
+        // проверили, что созданы все заказы и номера не повторяются
+        assertTrue(result.toString(), result.isComplete());
+        assertEquals(20, new HashSet<>(result.getOrderNumbers()).size());
+
+        /// Заказы появились в списке заказов пользователя.
+        Response getUserOrderListResponse = orderAPI.getUserOrderList(lease.getAccessToken());
+        OrderResponse userOrders = OrderResponse.of(getUserOrderListResponse);
+        userOrders.assertOrderList();
+        List<Integer> listedNumbers = new ArrayList<>();
+        userOrders.getOrders().forEach(order -> listedNumbers.add(order.getNumber()));
+        assertTrue(listedNumbers.toString(), listedNumbers.containsAll(result.getOrderNumbers()));
+    }
+
+    @Test
+    @DisplayName("Тест пакетного создания заказов с ошибками в части пакета.")
+    @Description("Проверяется, что заказы без ингредиентов попадают в отчёт об ошибках, а остальные создаются.")
+    public void orderCreateBatchPartialFailureTest () {
+        /// Пакет, в котором каждый второй заказ без ингредиентов.
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orders.add(new Order(i % 2 == 0 ? Collections.singletonList(ingredient) : Collections.emptyList()));
+        }
+        OrderBatch.Result result = orderAPI.orderCreateBatch(orders, lease.getAccessToken());
+
+        // проверили результат по каждому заказу
+        assertEquals(5, result.getSucceeded());
+        assertEquals(5, result.getFailures().size());
+        for (OrderBatch.Item item : result.getFailures()) {
+            assertEquals(1, item.getIndex() % 2);
+            assertEquals(400, item.getStatusCode());
+        }
+    }
+
+    @After /// Возвращаем пользователя в пул
+    public void postconditions () {
+        lease.close();
+    }
+}
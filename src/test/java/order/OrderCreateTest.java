@@ -1,7 +1,7 @@
 package order;
 
 import api.OrderAPI;
-import api.UserAPI;
+import api.UserPool;
 import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
@@ -9,24 +9,27 @@ import net.datafaker.Faker;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import runner.VirtualThreadRunner;
+import service.Log;
 import service.Order;
+import service.OrderResponse;
 import service.User;
 
 import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
 import static service.Utilities.*;
 
+@RunWith(VirtualThreadRunner.class)
 public class OrderCreateTest {
     // поля класса
     private Order order;
     private static OrderAPI orderAPI = new OrderAPI();
     private static Faker faker = new Faker();
     private List<String> ingredientsList;
-    private UserAPI userAPI;
+    private UserPool.Lease lease;
     private String accessToken;
     private User user;
 
@@ -36,20 +39,10 @@ public class OrderCreateTest {
 
     @Before
     public void setUp () {
-        /// Создание пользователя и получение токена.
-        // задали фейковые данные
-        String userEmail = faker.internet().emailAddress();
-        String userPassword = faker.internet().password();
-        String userName = faker.name().username();
-        // json с пользователем
-        user = new User(userEmail, userPassword, userName);
-        // создали пользователя в системе
-        userAPI = new UserAPI();
-        Response userCreatingResponse = userAPI.userCreating(user);
-        // проверили статус и тело ответа
-        checkUserPositiveResponse(userCreatingResponse, user, SC_OK, true);
-        // получили accessToken
-        accessToken = userAPI.getAccessToken(userCreatingResponse);
+        /// Получение авторизованного пользователя из пула.
+        lease = UserPool.shared().lease();
+        user = lease.getUser();
+        accessToken = lease.getAccessToken();
     }
 
     @Test
@@ -58,26 +51,19 @@ public class OrderCreateTest {
     public void orderCreateAuthorizedUserRealIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
         realIngredient = orderAPI.getIngredientId(orderAPI.getIngredients(), 0);
-        System.out.println(String.format("\uD83D\uDD35 В список добавляется реальный ингредиент \"%s\".", realIngredient));
+        Log.info(String.format("\uD83D\uDD35 В список добавляется реальный ингредиент \"%s\".", realIngredient));
         ingredientsList.add(realIngredient);
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Для созданного пользователя формируется заказ.
         Response orderCreateForUserResponse = orderAPI.orderCreateForUser(order, user, accessToken);
         // проверяем ответ
-        orderCreateForUserResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "name", notNullValue(),
-                        "order.ingredients[0]._id", equalTo(order.getIngredients().get(0)),
-                        "order.owner.name", equalTo(user.getName()),
-                        "order.owner.email", equalTo(user.getEmail())
-                );
+        OrderResponse.of(orderCreateForUserResponse).assertCreatedFor(user, order.getIngredients().get(0));
     }
 
     @Test
@@ -86,14 +72,14 @@ public class OrderCreateTest {
     public void orderCreateAuthorizedUserFakedIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
         fakedIngredient = faker.lorem().characters(24, 24, false, true);
-        System.out.println(String.format("\uD83D\uDD35 В список добавляется неверный ингредиент \"%s\".", fakedIngredient));
+        Log.info(String.format("\uD83D\uDD35 В список добавляется неверный ингредиент \"%s\".", fakedIngredient));
         ingredientsList.add(fakedIngredient);
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Для созданного пользователя формируется заказ.
         Response orderCreateForUserResponse = orderAPI.orderCreateForUser(order, user, accessToken);
@@ -107,12 +93,12 @@ public class OrderCreateTest {
     public void orderCreateAuthorizedUserNoIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
-        System.out.println("\uD83D\uDD35 Передан пустой список.");
+        Log.info("\uD83D\uDD35 Передан пустой список.");
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Для созданного пользователя формируется заказ.
         Response orderCreateForUserResponse = orderAPI.orderCreateForUser(order, user, accessToken);
@@ -128,24 +114,19 @@ public class OrderCreateTest {
     public void orderCreateNoAuthorizationRealIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
         realIngredient = orderAPI.getIngredientId(orderAPI.getIngredients(), 0);
-        System.out.println(String.format("\uD83D\uDD35 В список добавляется реальный ингредиент \"%s\".", realIngredient));
+        Log.info(String.format("\uD83D\uDD35 В список добавляется реальный ингредиент \"%s\".", realIngredient));
         ingredientsList.add(realIngredient);
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Формируется заказ без привязки к созданному пользователю.
         Response orderCreateWithoutUserResponse = orderAPI.orderCreateWithoutUser(order);
         // проверяем ответ
-        orderCreateWithoutUserResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "name", notNullValue(),
-                        "order.number", notNullValue()
-                );
+        OrderResponse.of(orderCreateWithoutUserResponse).assertCreated();
     }
 
     @Test
@@ -154,14 +135,14 @@ public class OrderCreateTest {
     public void orderCreateNoAuthorizationFakedIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
         fakedIngredient = faker.lorem().characters(24, 24, false, true);
-        System.out.println(String.format("\uD83D\uDD35 В список добавляется неверный ингредиент \"%s\".", fakedIngredient));
+        Log.info(String.format("\uD83D\uDD35 В список добавляется неверный ингредиент \"%s\".", fakedIngredient));
         ingredientsList.add(fakedIngredient);
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Формируется заказ.
         Response orderCreateWithoutUserResponse = orderAPI.orderCreateWithoutUser(order);
@@ -176,12 +157,12 @@ public class OrderCreateTest {
     public void orderCreateNoAuthorizationNoIngredientTest () {
         /// Создание тела запроса.
         // создали список ингредиентов
-        System.out.println("-> Формируется json со списком ингредиентов.");
+        Log.info("-> Формируется json со списком ингредиентов.");
         ingredientsList = new ArrayList<>();
-        System.out.println("\uD83D\uDD35 Передан пустой список.");
+        Log.info("\uD83D\uDD35 Передан пустой список.");
         // создали json со списком
         order = new Order(ingredientsList);
-        System.out.println("✅ json сформирован.\n");
+        Log.info("✅ json сформирован.\n");
 
         /// Формируется заказ.
         Response orderCreateWithoutUserResponse = orderAPI.orderCreateWithoutUser(order);
@@ -190,15 +171,8 @@ public class OrderCreateTest {
         checkNegativeResponse(orderCreateWithoutUserResponse, SC_BAD_REQUEST, false, messageKeyValue);
     }
 
-    @After /// Удаляем пользователя
+    @After /// Возвращаем пользователя в пул
     public void postconditions () {
-        Response deleteUserResponse = userAPI.deleteUser(accessToken);
-        // проверка статуса и тела ответа
-        deleteUserResponse.then().assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+        lease.close();
     }
 }
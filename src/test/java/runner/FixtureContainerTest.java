@@ -0,0 +1,94 @@
+package runner;
+
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.FixtureResult;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.Test;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class FixtureContainerTest {
+    private final List<TestResultContainer> containers = new ArrayList<>();
+    private final AllureLifecycle lifecycle = new AllureLifecycle(new AllureResultsWriter() {
+        @Override
+        public void write(TestResult testResult) {
+        }
+
+        @Override
+        public void write(TestResultContainer testResultContainer) {
+            containers.add(testResultContainer);
+        }
+
+        @Override
+        public void write(String source, InputStream attachment) {
+        }
+    });
+
+    // сервисный метод: тест, начатый слушателем Allure в текущем потоке
+    private void runTest(FixtureContainer container, Class<?> testClass, String uuid) {
+        lifecycle.scheduleTestCase(new TestResult().setUuid(uuid).setName(uuid));
+        lifecycle.startTestCase(uuid);
+        container.testStarted(Description.createTestDescription(testClass, uuid));
+        lifecycle.stopTestCase(uuid);
+        lifecycle.writeTestCase(uuid);
+    }
+
+    @Test
+    public void fixtureStepsLandInSetUpOfClassTestsTest () throws Throwable {
+        FixtureContainer container = new FixtureContainer(lifecycle, FixtureContainerTest.class);
+
+        container.prepare("Общие фикстуры", new Statement() {
+            @Override
+            public void evaluate() {
+                lifecycle.startStep("step", new StepResult().setName("Регистрация пользователя.").setStatus(Status.PASSED));
+                lifecycle.stopStep("step");
+            }
+        });
+        runTest(container, FixtureContainerTest.class, "row-1");
+        runTest(container, FixtureContainerTest.class, "row-2");
+        // тест другого класса, который surefire выполняет одновременно, в контейнер не попадает
+        runTest(container, ParallelParameterizedTest.class, "other");
+        container.close();
+
+        assertEquals(1, containers.size());
+        TestResultContainer written = containers.get(0);
+        assertEquals(List.of("row-1", "row-2"), written.getChildren());
+        FixtureResult fixture = written.getBefores().get(0);
+        assertEquals(Status.PASSED, fixture.getStatus());
+        assertEquals("Регистрация пользователя.", fixture.getSteps().get(0).getName());
+    }
+
+    @Test
+    public void failedFixtureIsRecordedAndRethrownTest () {
+        FixtureContainer container = new FixtureContainer(lifecycle, FixtureContainerTest.class);
+
+        try {
+            container.prepare("Общие фикстуры", new Statement() {
+                @Override
+                public void evaluate() {
+                    throw new AssertionError("пользователь не создан");
+                }
+            });
+            fail("ошибка фикстуры не проброшена");
+        } catch (Throwable expected) {
+            assertEquals("пользователь не создан", expected.getMessage());
+        }
+        container.close();
+
+        FixtureResult fixture = containers.get(0).getBefores().get(0);
+        assertEquals(Status.FAILED, fixture.getStatus());
+        assertEquals(Collections.emptyList(), containers.get(0).getChildren());
+    }
+}
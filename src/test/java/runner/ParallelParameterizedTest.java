@@ -0,0 +1,87 @@
+package runner;
+
+import org.junit.Test;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParallelParameterizedTest {
+    // 0 в tests.parallel.rows - без ограничения
+    private static final int EXPECTED_PARALLEL = ParallelParameterized.ROWS > 0 ? Math.min(ParallelParameterized.ROWS, 4) : 4;
+
+    // вложенный класс surefire не запускает сам, его запускает тест ниже
+    @RunWith(ParallelParameterized.class)
+    public static class Rows {
+        static final AtomicInteger FIXTURES_CREATED = new AtomicInteger();
+        static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+        static final AtomicInteger PEAK = new AtomicInteger();
+        static final CountDownLatch STARTED = new CountDownLatch(EXPECTED_PARALLEL);
+        private static final Fixture<String> SHARED = Fixture.of(() -> {
+            FIXTURES_CREATED.incrementAndGet();
+            return "общая фикстура";
+        });
+
+        private final int row;
+        private final StringBuilder own = new StringBuilder();
+
+        public Rows(int row) {
+            this.row = row;
+        }
+
+        @Parameterized.Parameters (name="строка {0}")
+        public static Object[] data () {
+            return new Object[] {1, 2, 3, 4};
+        }
+
+        @Test
+        public void row () throws InterruptedException {
+            PEAK.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+            STARTED.countDown();
+            // строки ждут друг друга, значит, выполняются одновременно
+            assertTrue(STARTED.await(5, TimeUnit.SECONDS));
+            own.append(row);
+            assertEquals("общая фикстура", SHARED.get());
+            assertEquals(String.valueOf(row), own.toString());
+            IN_FLIGHT.decrementAndGet();
+        }
+    }
+
+    @Test
+    public void rowsRunConcurrentlyAndShareFixtureCreatedOnceTest () {
+        Result result = JUnitCore.runClasses(Rows.class);
+
+        assertTrue(String.valueOf(result.getFailures()), result.wasSuccessful());
+        assertEquals(4, result.getRunCount());
+        assertEquals(1, Rows.FIXTURES_CREATED.get());
+        assertEquals(EXPECTED_PARALLEL, Rows.PEAK.get());
+    }
+
+    @Test
+    public void failedFixtureIsRememberedTest () {
+        AtomicInteger attempts = new AtomicInteger();
+        Fixture<String> fixture = Fixture.of(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("бэкенд недоступен");
+        });
+
+        for (int i = 0; i < 3; i++) {
+            try {
+                fixture.get();
+            } catch (IllegalStateException expected) {
+                assertTrue(expected.getMessage().contains("бэкенд недоступен"));
+            }
+        }
+
+        assertEquals(1, attempts.get());
+        assertFalse(fixture.isInitialized());
+    }
+}
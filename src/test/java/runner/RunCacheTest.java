@@ -0,0 +1,44 @@
+package runner;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RunCacheTest {
+
+    @Test
+    public void constantPoolGivesReferencedClassesTest () throws IOException {
+        byte[] bytes;
+        try (InputStream in = RunCacheTest.class.getResourceAsStream("RunCacheTest.class")) {
+            bytes = in.readAllBytes();
+        }
+
+        Set<String> names = RunCache.referencedClasses(bytes);
+
+        assertTrue(names.toString(), names.contains("runner/RunCache"));
+        assertTrue(names.toString(), names.contains("runner/VirtualThreadRunner"));
+        assertTrue(names.toString(), names.contains("java/io/InputStream"));
+    }
+
+    @Test
+    public void fingerprintCoversReachableProjectClassesTest () throws IOException {
+        String fingerprint = RunCache.fingerprint(RunCacheTest.class);
+
+        assertEquals(fingerprint, RunCache.fingerprint(RunCacheTest.class));
+        assertEquals(64, fingerprint.length());
+        // раннер не дотягивается до теста, поэтому отпечаток у него свой
+        assertNotEquals(fingerprint, RunCache.fingerprint(VirtualThreadRunner.class));
+    }
+
+    // ссылка на раннер нужна только для проверки разбора пула констант
+    @SuppressWarnings("unused")
+    private static Class<?> runner() {
+        return VirtualThreadRunner.class;
+    }
+}
@@ -0,0 +1,120 @@
+package service;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AsyncResultsWriterTest {
+
+    // сервисный класс: запоминает, что и в каком потоке записано; может придержать запись до сигнала
+    private static class RecordingWriter implements AllureResultsWriter {
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final Map<String, String> attachments = new ConcurrentHashMap<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        private RecordingWriter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(TestResult testResult) {
+            entered.countDown();
+            await();
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void write(TestResultContainer testResultContainer) {
+            threads.add(Thread.currentThread().getName());
+        }
+
+        @Override
+        public void write(String source, InputStream attachment) {
+            try {
+                attachments.put(source, new String(attachment.readAllBytes(), StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            threads.add(Thread.currentThread().getName());
+        }
+
+        private void await() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    public void resultsAreWrittenInBackgroundAndFlushedOnCloseTest () {
+        RecordingWriter delegate = new RecordingWriter(new CountDownLatch(0));
+        AsyncResultsWriter writer = new AsyncResultsWriter(delegate, 8, 100);
+
+        for (int i = 0; i < 50; i++) {
+            writer.write(new TestResult());
+        }
+        writer.write(new TestResultContainer());
+        writer.close();
+
+        assertEquals(51, delegate.threads.size());
+        assertEquals(51, writer.queued());
+        assertTrue(delegate.threads.stream().allMatch("allure-results-writer"::equals));
+        assertTrue(writer.statsInfo(), writer.statsInfo().contains("тестов 50"));
+    }
+
+    @Test
+    public void attachmentIsCopiedBeforeCallerClosesStreamTest () throws IOException {
+        RecordingWriter delegate = new RecordingWriter(new CountDownLatch(0));
+        AsyncResultsWriter writer = new AsyncResultsWriter(delegate, 8, 100);
+
+        try (InputStream body = new ByteArrayInputStream("{\"success\":true}".getBytes(StandardCharsets.UTF_8))) {
+            writer.write("a-attachment.json", body);
+        }
+        writer.close();
+
+        assertEquals("{\"success\":true}", delegate.attachments.get("a-attachment.json"));
+    }
+
+    @Test
+    public void fullQueueAndClosedWriterFallBackToCallerThreadTest () throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingWriter delegate = new RecordingWriter(release);
+        AsyncResultsWriter writer = new AsyncResultsWriter(delegate, 1, 1);
+        String caller = Thread.currentThread().getName();
+
+        // фоновый поток занят первым результатом, второй занимает очередь, третий пишется в потоке теста
+        writer.write(new TestResult());
+        assertTrue(delegate.entered.await(5, TimeUnit.SECONDS));
+        writer.write(new TestResultContainer());
+        writer.write(new TestResultContainer());
+        assertEquals(List.of(caller), delegate.threads);
+
+        release.countDown();
+        writer.close();
+        // после закрытия, например из хуков завершения JVM, запись идёт сразу
+        writer.write(new TestResultContainer());
+
+        assertEquals(List.of(caller, "allure-results-writer", "allure-results-writer", caller), delegate.threads);
+        assertEquals(2, writer.queued());
+        assertEquals(4, writer.written());
+    }
+}
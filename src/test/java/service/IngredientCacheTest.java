@@ -0,0 +1,147 @@
+package service;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import stub.StellarBurgersStub;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static service.Utilities.GET_INGREDIENTS;
+
+public class IngredientCacheTest {
+    private static StellarBurgersStub stub;
+
+    // заголовки каждого запроса к заглушке
+    private final List<Map<String, String>> requests = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeClass
+    public static void startStub () throws IOException {
+        stub = new StellarBurgersStub(0).start();
+    }
+
+    @AfterClass
+    public static void stopStub () {
+        stub.stop();
+    }
+
+    // сервисный метод: запрос каталога через фильтры базовой спецификации, но в отдельную заглушку
+    private Function<Map<String, String>, Response> loader(boolean conditional) {
+        return headers -> {
+            requests.add(headers);
+            return RestAssured.given().spec(Utilities.BASE_SPEC).baseUri(stub.baseUri())
+                    .headers(conditional ? headers : Collections.emptyMap())
+                    .get(GET_INGREDIENTS);
+        };
+    }
+
+    private static String firstIngredientId(Response response) {
+        return IngredientsResponse.of(response).getIngredientId(0);
+    }
+
+    @Test
+    public void catalogIsTakenFromCacheWithinTtlTest () {
+        IngredientCache cache = new IngredientCache(1, TimeUnit.MINUTES);
+
+        Response first = cache.get(loader(true));
+        Response second = cache.get(loader(true));
+
+        assertEquals(1, requests.size());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+        assertEquals(SC_OK, second.getStatusCode());
+        assertEquals(firstIngredientId(first), firstIngredientId(second));
+        assertNotNull(cache.findById(firstIngredientId(second)));
+    }
+
+    @Test
+    public void expiredCatalogIsRevalidatedWithNotModifiedTest () throws InterruptedException {
+        IngredientCache cache = new IngredientCache(1, TimeUnit.MILLISECONDS);
+
+        Response first = cache.get(loader(true));
+        Thread.sleep(10);
+        Response second = cache.get(loader(true));
+
+        // повторный запрос условный, заглушка ответила 304, вызывающий получил прежний каталог
+        assertEquals(2, requests.size());
+        assertEquals(first.getHeader("ETag"), requests.get(1).get("If-None-Match"));
+        assertEquals(1, cache.revalidations());
+        assertEquals(1, cache.misses());
+        assertEquals(SC_OK, second.getStatusCode());
+        assertEquals(firstIngredientId(first), firstIngredientId(second));
+    }
+
+    @Test
+    public void expiredCatalogIsLoadedAgainWithoutConditionalSupportTest () throws InterruptedException {
+        IngredientCache cache = new IngredientCache(1, TimeUnit.MILLISECONDS);
+
+        // бэкенд без поддержки условных запросов: после истечения TTL каталог загружается целиком
+        cache.get(loader(false));
+        Thread.sleep(10);
+        Response second = cache.get(loader(false));
+
+        assertEquals(2, requests.size());
+        assertEquals(0, cache.revalidations());
+        assertEquals(2, cache.misses());
+        assertEquals(SC_OK, second.getStatusCode());
+        assertNotNull(cache.findById(firstIngredientId(second)));
+    }
+
+    @Test
+    public void cachedCatalogIsParsedOnceTest () {
+        IngredientCache cache = new IngredientCache(1, TimeUnit.MINUTES);
+
+        Response first = cache.get(loader(true));
+        Response second = cache.get(loader(true));
+        Response third = cache.get(loader(true));
+
+        // у каждого вызывающего свой Response, но разобранный каталог один на все
+        assertNotSame(second, third);
+        assertSame(IngredientsResponse.of(first), IngredientsResponse.of(second));
+        assertSame(IngredientsResponse.of(second), IngredientsResponse.of(third));
+        IngredientsResponse.Ingredient ingredient = cache.findById(firstIngredientId(third));
+        assertSame(IngredientsResponse.of(third).getData().get(0), ingredient);
+    }
+
+    @Test
+    public void concurrentCallersGetOwnResponsesTest () throws Exception {
+        IngredientCache cache = new IngredientCache(1, TimeUnit.MINUTES);
+        String expected = firstIngredientId(cache.get(loader(true)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Response>> results = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            results.add(executor.submit(() -> {
+                Response response = cache.get(loader(true));
+                assertEquals(expected, firstIngredientId(response));
+                return response;
+            }));
+        }
+        List<Response> responses = new ArrayList<>();
+        for (Future<Response> result : results) {
+            responses.add(result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, requests.size());
+        assertNotSame(responses.get(0), responses.get(1));
+        assertTrue(cache.hits() >= 32);
+    }
+}
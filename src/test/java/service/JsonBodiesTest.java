@@ -0,0 +1,81 @@
+package service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class JsonBodiesTest {
+    // так тела сериализует RestAssured
+    private static final Gson GSON = new Gson();
+
+    private static String text(byte[] body) {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    // сравнение с Gson по дереву json: Gson дополнительно экранирует html-символы, это не меняет значения
+    private static void assertSameJson(Object model, byte[] body) {
+        assertEquals(JsonParser.parseString(GSON.toJson(model)), JsonParser.parseString(text(body)));
+    }
+
+    @Test
+    public void userBodyMatchesGsonTest () {
+        User user = new User("a.b@example.com", "p@ss\"word\\", "Имя \uD83D\uDE00 <тест>");
+
+        assertSameJson(user, JsonBodies.user(user));
+    }
+
+    @Test
+    public void nullFieldsAreOmittedLikeGsonTest () {
+        assertEquals("{\"email\":\"a@b.ru\",\"name\":\"Имя\"}", text(JsonBodies.user(new User("a@b.ru", null, "Имя"))));
+        assertEquals("{\"password\":\"secret\"}", text(JsonBodies.user(new User(null, "secret", null))));
+        assertEquals("{}", text(JsonBodies.order(new Order(null))));
+        assertEquals("{\"ingredients\":[]}", text(JsonBodies.order(new Order(Collections.emptyList()))));
+    }
+
+    @Test
+    public void controlAndSpecialCharactersAreEscapedTest () {
+        String value = "tab\tline\nquote\"back\\slash\u0001\u001f\u2028end";
+
+        assertEquals("{\"token\":\"tab\\tline\\nquote\\\"back\\\\slash\\u0001\\u001f\\u2028end\"}",
+                text(JsonBodies.token(value)));
+        assertSameJson(Collections.singletonMap("token", value), JsonBodies.token(value));
+    }
+
+    @Test
+    public void orderBodyMatchesGsonTest () {
+        Order order = new Order(Arrays.asList("61c0c5a71d1f82001bdaaa6d", null, "61c0c5a71d1f82001bdaaa6f"));
+
+        assertSameJson(order, JsonBodies.order(order));
+    }
+
+    @Test
+    public void bufferIsReturnedToPoolAndReusedTest () {
+        JsonBuffer buffer = JsonBodies.acquire();
+        JsonBodies.writeToken("abc", buffer);
+        JsonBodies.release(buffer);
+
+        JsonBuffer reused = JsonBodies.acquire();
+
+        assertSame(buffer, reused);
+        assertEquals(0, reused.length());
+        JsonBodies.release(reused);
+    }
+
+    @Test
+    public void bufferGrowsForLongValuesTest () {
+        char[] chars = new char[10_000];
+        Arrays.fill(chars, 'ж');
+        String longName = new String(chars);
+
+        User user = new User("a@b.ru", "secret", longName);
+
+        assertSameJson(user, JsonBodies.user(user));
+    }
+}
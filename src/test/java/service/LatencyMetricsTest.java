@@ -0,0 +1,95 @@
+package service;
+
+import org.HdrHistogram.Histogram;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyMetricsTest {
+    // ручки теста; реестр LatencyMetrics общий на прогон, поэтому после теста они из него удаляются
+    private final List<String> endpoints = new ArrayList<>();
+
+    private String endpoint(String name) {
+        endpoints.add(name);
+        return name;
+    }
+
+    @After
+    public void removeEndpoints () {
+        endpoints.forEach(LatencyMetrics::remove);
+    }
+
+    @Test
+    public void timeRecordsPhasesReportedByTransportTest () {
+        String endpoint = endpoint("GET test/phases");
+
+        String result = LatencyMetrics.time(endpoint, () -> {
+            // так хуки HttpTransport сообщают о новом соединении и получении заголовков
+            LatencyMetrics.onDnsResolved(TimeUnit.MILLISECONDS.toNanos(2));
+            LatencyMetrics.onConnectionOpened(TimeUnit.MILLISECONDS.toNanos(5));
+            LatencyMetrics.onResponseHeaders(TimeUnit.MILLISECONDS.toNanos(7));
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2_000, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.DNS).getMaxValue(), 10);
+        // из времени открытия соединения вычитается DNS
+        assertEquals(3_000, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.CONNECT).getMaxValue(), 10);
+        assertEquals(7_000, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.TTFB).getMaxValue(), 10);
+        assertEquals(1, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.TOTAL).getTotalCount());
+    }
+
+    @Test
+    public void pooledConnectionRecordsOnlyTtfbAndTotalTest () {
+        String endpoint = endpoint("GET test/pooled");
+
+        LatencyMetrics.time(endpoint, () -> {
+            LatencyMetrics.onResponseHeaders(TimeUnit.MILLISECONDS.toNanos(1));
+            return null;
+        });
+
+        assertEquals(0, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.DNS).getTotalCount());
+        assertEquals(0, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.CONNECT).getTotalCount());
+        assertEquals(1, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.TTFB).getTotalCount());
+        assertNull(LatencyMetrics.snapshot("GET test/never-called", LatencyMetrics.Phase.TOTAL));
+    }
+
+    @Test
+    public void hooksOutsideTimedCallAreIgnoredTest () {
+        LatencyMetrics.onResponseHeaders(TimeUnit.MILLISECONDS.toNanos(1));
+        String endpoint = endpoint("GET test/outside");
+
+        LatencyMetrics.time(endpoint, () -> null);
+
+        assertEquals(0, LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.TTFB).getTotalCount());
+    }
+
+    @Test
+    public void reportContainsTableAndHgrmFilesTest () throws IOException {
+        String endpoint = endpoint("POST test/report");
+        for (int i = 1; i <= 100; i++) {
+            LatencyMetrics.record(endpoint, LatencyMetrics.Phase.TOTAL, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        Path dir = Files.createTempDirectory("latency");
+
+        LatencyMetrics.writeReport(dir);
+
+        String table = new String(Files.readAllBytes(dir.resolve("latency.txt")), "UTF-8");
+        assertTrue(table, table.contains(endpoint));
+        Path hgrm = dir.resolve(LatencyMetrics.hgrmFileName(endpoint, LatencyMetrics.Phase.TOTAL));
+        assertEquals("POST_test_report.total.hgrm", hgrm.getFileName().toString());
+        assertTrue(new String(Files.readAllBytes(hgrm), "UTF-8").contains("Percentile"));
+        Histogram total = LatencyMetrics.snapshot(endpoint, LatencyMetrics.Phase.TOTAL);
+        assertEquals(50_000, total.getValueAtPercentile(50), 100);
+    }
+}
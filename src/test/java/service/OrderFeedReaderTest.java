@@ -0,0 +1,94 @@
+package service;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OrderFeedReaderTest {
+    private static final int ORDERS = 5_000;
+    private static final byte[] FEED = feed(ORDERS);
+
+    // сервисный метод сборки ленты в формате api/orders/all
+    private static byte[] feed(int count) {
+        StringBuilder json = new StringBuilder("{\"success\":true,\"orders\":[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(String.format("{\"_id\":\"id-%d\",\"ingredients\":[\"61c0c5a71d1f82001bdaaa6d\",\"61c0c5a71d1f82001bdaaa6f\"],"
+                    + "\"status\":\"done\",\"name\":\"Бургер %d\",\"createdAt\":\"2024-01-01T00:00:00.000Z\","
+                    + "\"updatedAt\":\"2024-01-01T00:00:01.000Z\",\"number\":%d}", i, i, 100_000 - i));
+        }
+        json.append(String.format("],\"total\":%d,\"totalToday\":10}", count));
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void readsOnlyRequestedRangeTest () {
+        List<Map<String, Object>> orders = OrderFeedReader.read(new ByteArrayInputStream(FEED), 5, 8);
+
+        assertEquals(3, orders.size());
+        assertEquals("id-5", orders.get(0).get("_id"));
+        assertEquals("id-7", orders.get(2).get("_id"));
+        // номер заказа остаётся целым числом
+        assertEquals(99_995L, orders.get(0).get("number"));
+    }
+
+    @Test
+    public void rangeBeyondFeedReturnsTailTest () {
+        List<Map<String, Object>> orders = OrderFeedReader.read(new ByteArrayInputStream(feed(3)), 1, 10);
+
+        assertEquals(2, orders.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeFromIndexIsRejectedTest () {
+        OrderFeedReader.read(new ByteArrayInputStream(FEED), -1, 2);
+    }
+
+    @Test
+    public void streamingAllocatesFarLessThanFullMaterialisationTest () {
+        // прогрев обоих вариантов
+        for (int i = 0; i < 2; i++) {
+            readAll();
+            OrderFeedReader.read(new ByteArrayInputStream(FEED), 0, 2);
+        }
+
+        long fullBytes = allocatedBytes(OrderFeedReaderTest::readAll);
+        long streamingBytes = allocatedBytes(() -> OrderFeedReader.read(new ByteArrayInputStream(FEED), 0, 2));
+        Log.info(String.format("\uD83D\uDD35 Лента из %d заказов: response.path %d КБ, потоковый разбор %d КБ.",
+                ORDERS, fullBytes / 1024, streamingBytes / 1024));
+
+        assertTrue(streamingBytes * 10 < fullBytes);
+    }
+
+    // разбор, как у ответа RestAssured: response.path по всей ленте, затем subList; ответ собирается заново,
+    // чтобы JsonPath не брался из кэша прошлого вызова
+    private static void readAll() {
+        Response response = new ResponseBuilder()
+                .setStatusCode(200)
+                .setContentType(ContentType.JSON)
+                .setBody(FEED)
+                .build();
+        List<Map<String, Object>> orders = response.path("orders");
+        orders.subList(0, 2);
+    }
+
+    private static long allocatedBytes(Runnable action) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        action.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+}
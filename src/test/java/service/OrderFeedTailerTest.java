@@ -0,0 +1,107 @@
+package service;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class OrderFeedTailerTest {
+
+    // сервисный метод сборки снимка ленты
+    private static String feed(int total, String... orders) {
+        return "{\"success\":true,\"orders\":[" + String.join(",", orders) + "],"
+                + "\"total\":" + total + ",\"totalToday\":" + total + "}";
+    }
+
+    private static String order(String id, int number, String status, String updatedAt) {
+        return String.format("{\"_id\":\"%s\",\"number\":%d,\"status\":\"%s\",\"name\":\"Бургер\","
+                + "\"createdAt\":\"2026-10-18T10:00:00.000Z\",\"updatedAt\":\"%s\",\"ingredients\":[\"i1\"]}",
+                id, number, status, updatedAt);
+    }
+
+    private static OrderFeedTailer.Event next(OrderFeedTailer tailer) throws InterruptedException {
+        return tailer.nextEvent(0, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void firstSnapshotOnlySetsMarkTest () throws InterruptedException {
+        OrderFeedTailer tailer = new OrderFeedTailer(Duration.ofSeconds(1), 10, false);
+
+        tailer.accept(feed(2, order("b", 2, "pending", "2026-10-18T10:00:02.000Z"),
+                order("a", 1, "done", "2026-10-18T10:00:01.000Z")));
+
+        assertNull(next(tailer));
+        assertEquals(2, tailer.getLastNumber());
+        assertEquals("2026-10-18T10:00:02.000Z", tailer.getLastUpdatedAt());
+        assertEquals(Integer.valueOf(2), tailer.getTotal());
+    }
+
+    @Test
+    public void onlyNewAndChangedOrdersAreEmittedTest () throws InterruptedException {
+        OrderFeedTailer tailer = new OrderFeedTailer(Duration.ofSeconds(1), 10, false);
+        String first = order("a", 1, "done", "2026-10-18T10:00:01.000Z");
+        tailer.accept(feed(2, order("b", 2, "pending", "2026-10-18T10:00:02.000Z"), first));
+
+        tailer.accept(feed(3, order("c", 3, "created", "2026-10-18T10:00:03.000Z"),
+                order("b", 2, "done", "2026-10-18T10:00:04.000Z"), first));
+
+        OrderFeedTailer.Event created = next(tailer);
+        assertEquals(OrderFeedTailer.EventType.NEW, created.getType());
+        assertEquals(Integer.valueOf(3), created.getOrder().getNumber());
+        OrderFeedTailer.Event changed = next(tailer);
+        assertEquals(OrderFeedTailer.EventType.CHANGED, changed.getType());
+        assertEquals("done", changed.getOrder().getStatus());
+        assertNull(next(tailer));
+
+        // тот же снимок повторно ничего не даёт
+        tailer.accept(feed(3, order("c", 3, "created", "2026-10-18T10:00:03.000Z"),
+                order("b", 2, "done", "2026-10-18T10:00:04.000Z"), first));
+        assertNull(next(tailer));
+        assertEquals(3, tailer.getLastNumber());
+    }
+
+    @Test
+    public void orderChangedAtSameTimeAsMarkIsEmittedOnceTest () throws InterruptedException {
+        OrderFeedTailer tailer = new OrderFeedTailer(Duration.ofSeconds(1), 10, false);
+        String mark = "2026-10-18T10:00:05.000Z";
+        tailer.accept(feed(2, order("b", 2, "done", mark), order("a", 1, "pending", "2026-10-18T10:00:01.000Z")));
+
+        tailer.accept(feed(2, order("b", 2, "done", mark), order("a", 1, "done", mark)));
+        tailer.accept(feed(2, order("b", 2, "done", mark), order("a", 1, "done", mark)));
+
+        OrderFeedTailer.Event changed = next(tailer);
+        assertEquals("a", changed.getOrder().getId());
+        assertNull(next(tailer));
+    }
+
+    @Test
+    public void fullQueueDropsAndCountsEventsTest () throws InterruptedException {
+        OrderFeedTailer tailer = new OrderFeedTailer(Duration.ofSeconds(1), 1, true);
+
+        tailer.accept(feed(2, order("b", 2, "done", "2026-10-18T10:00:02.000Z"),
+                order("a", 1, "done", "2026-10-18T10:00:01.000Z")));
+
+        assertEquals(Integer.valueOf(2), next(tailer).getOrder().getNumber());
+        assertNull(next(tailer));
+        assertEquals(1, tailer.getDropped());
+    }
+
+    @Test
+    public void messageWithoutOrdersIsNotSnapshotTest () throws InterruptedException {
+        OrderFeedTailer tailer = new OrderFeedTailer(Duration.ofSeconds(1), 10, false);
+
+        // сообщение с ошибкой не считается первым снимком, иначе следующий снимок отдал бы всю ленту как новую
+        tailer.accept("{\"success\":false}");
+        tailer.accept(feed(1, order("a", 1, "done", "2026-10-18T10:00:01.000Z")));
+        assertNull(next(tailer));
+
+        // пустые элементы ленты пропускаются
+        tailer.accept(feed(2, "null", order("b", 2, "created", "2026-10-18T10:00:02.000Z")));
+        assertEquals(Integer.valueOf(2), next(tailer).getOrder().getNumber());
+        assertNull(next(tailer));
+        assertEquals(2, tailer.getLastNumber());
+    }
+}
@@ -0,0 +1,101 @@
+package service;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OrderStoreTest {
+    private static final Instant NOW = Instant.parse("2026-10-18T12:00:00Z");
+
+    // сервисный метод сборки списка заказов без запроса к серверу
+    private static Response orders(String... orders) {
+        return new ResponseBuilder().setStatusCode(200)
+                .setBody("{\"success\":true,\"orders\":[" + String.join(",", orders) + "],\"total\":1,\"totalToday\":1}")
+                .build();
+    }
+
+    private static String order(int number, String status, Instant createdAt, String... ingredients) {
+        return String.format("{\"_id\":\"id%d\",\"number\":%d,\"status\":\"%s\",\"name\":\"Бургер\","
+                + "\"createdAt\":\"%s\",\"updatedAt\":\"%s\",\"ingredients\":[\"%s\"]}",
+                number, number, status, createdAt, createdAt, String.join("\",\"", ingredients));
+    }
+
+    private static List<Integer> numbers(List<OrderResponse.OrderData> orders) {
+        List<Integer> numbers = new ArrayList<>();
+        for (OrderResponse.OrderData order : orders) {
+            numbers.add(order.getNumber());
+        }
+        return numbers;
+    }
+
+    @Test
+    public void ordersAreFoundByNumberStatusAndIngredientTest () {
+        OrderStore store = OrderStore.of(orders(
+                order(3, "done", NOW.minusSeconds(60), "bun", "sauce"),
+                order(1, "done", NOW.minusSeconds(7200), "bun"),
+                order(2, "pending", NOW.minusSeconds(1800), "meat", "meat")));
+
+        assertEquals(3, store.size());
+        assertEquals("pending", store.byNumber(2).getStatus());
+        assertNull(store.byNumber(4));
+        // выборки идут по возрастанию времени создания
+        assertEquals(List.of(1, 3), numbers(store.byStatus("done")));
+        assertEquals(List.of(1, 3), numbers(store.withIngredient("bun")));
+        // повтор ингредиента в заказе не дублирует заказ
+        assertEquals(List.of(2), numbers(store.withIngredient("meat")));
+        assertTrue(store.withIngredient("cheese").isEmpty());
+        assertTrue(store.byStatus("created").isEmpty());
+    }
+
+    @Test
+    public void timeRangeQueriesUseHalfOpenIntervalTest () {
+        OrderStore store = OrderStore.of(orders(
+                order(1, "done", NOW.minusSeconds(7200), "bun"),
+                order(2, "done", NOW.minusSeconds(3600), "bun"),
+                order(3, "pending", NOW.minusSeconds(60), "bun"),
+                order(4, "done", NOW, "bun")));
+        Instant hourAgo = NOW.minusSeconds(3600);
+
+        assertEquals(List.of(2, 3), numbers(store.withIngredient("bun", hourAgo, NOW)));
+        assertEquals(List.of(2), numbers(store.byStatus("done", hourAgo, NOW)));
+        assertEquals(List.of(1, 2, 3, 4), numbers(store.createdBetween(Instant.EPOCH, NOW.plusSeconds(1))));
+    }
+
+    @Test
+    public void laterSnapshotReplacesOrderWithSameNumberTest () {
+        OrderStore store = OrderStore.of(orders(order(1, "pending", NOW, "bun")));
+        assertEquals(List.of(1), numbers(store.byStatus("pending")));
+
+        String done = String.format("{\"_id\":\"id1\",\"number\":1,\"status\":\"done\",\"createdAt\":\"%s\","
+                + "\"updatedAt\":\"%s\",\"ingredients\":[\"bun\"]}", NOW, NOW.plusSeconds(30));
+        store.add(orders(done));
+
+        assertEquals(1, store.size());
+        assertTrue(store.byStatus("pending").isEmpty());
+        assertEquals("done", store.byNumber(1).getStatus());
+    }
+
+    @Test
+    public void indexGrowsPastInitialCapacityTest () {
+        String[] many = new String[1000];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = order(100 + i, i % 2 == 0 ? "done" : "pending", NOW.minusSeconds(i), "i" + (i % 7));
+        }
+        OrderStore store = OrderStore.of(orders(many));
+
+        assertEquals(1000, store.size());
+        for (int i = 0; i < many.length; i++) {
+            assertEquals(Integer.valueOf(100 + i), store.byNumber(100 + i).getNumber());
+        }
+        assertEquals(500, store.byStatus("done").size());
+        assertEquals(143, store.withIngredient("i0").size());
+    }
+}
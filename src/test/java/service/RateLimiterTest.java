@@ -0,0 +1,129 @@
+package service;
+
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private static RateLimiter limiter(double rps, int maxInFlight) {
+        return new RateLimiter(path -> rps, path -> maxInFlight);
+    }
+
+    @Test
+    public void burstIsFreeAndNextPermitsArePacedTest () {
+        RateLimiter limiter = limiter(20, 0);
+        long start = System.nanoTime();
+
+        // 20 разрешений накоплены, следующие 5 - по одному в 50 мс
+        for (int i = 0; i < 25; i++) {
+            limiter.execute("api/ingredients", () -> 200, code -> code, response -> null);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("прошло " + elapsedMs + " мс", elapsedMs >= 200 && elapsedMs < 1_000);
+        assertTrue(limiter.waitedNanos("api/ingredients") > 0);
+        assertEquals(0, limiter.waitedNanos("api/orders"));
+    }
+
+    @Test
+    public void tooManyRequestsHalvesRateAndSuccessesRestoreItTest () {
+        RateLimiter limiter = limiter(4, 0);
+
+        limiter.execute("api/auth/register", () -> 429, code -> code, response -> null);
+        assertEquals(2.0, limiter.currentRps("api/auth/register"), 0.01);
+
+        // +1 запр/с после стольких успехов подряд, какова текущая частота
+        for (int i = 0; i < 2; i++) {
+            limiter.execute("api/auth/register", () -> 200, code -> code, response -> null);
+        }
+        assertEquals(3.0, limiter.currentRps("api/auth/register"), 0.01);
+        for (int i = 0; i < 3; i++) {
+            limiter.execute("api/auth/register", () -> 200, code -> code, response -> null);
+        }
+        // выше предела не поднимается
+        assertEquals(4.0, limiter.currentRps("api/auth/register"), 0.01);
+    }
+
+    @Test
+    public void retryAfterPausesEndpointTest () {
+        RateLimiter limiter = limiter(0, 0);
+
+        limiter.execute("api/orders", () -> 429, code -> code, response -> "1");
+        long start = System.nanoTime();
+        limiter.execute("api/orders", () -> 200, code -> code, response -> null);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 900);
+        // без ограничения частоты снижать нечего
+        assertEquals(0.0, limiter.currentRps("api/orders"), 0.0);
+    }
+
+    @Test
+    public void retryAfterAcceptsSecondsAndHttpDateTest () {
+        assertEquals(TimeUnit.SECONDS.toNanos(5), (long) RateLimiter.retryAfterNanos(" 5 "));
+        String date = ZonedDateTime.now().plusSeconds(30).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        long nanos = RateLimiter.retryAfterNanos(date);
+        assertTrue(nanos > TimeUnit.SECONDS.toNanos(25) && nanos <= TimeUnit.SECONDS.toNanos(30));
+        assertNull(RateLimiter.retryAfterNanos("скоро"));
+        assertNull(RateLimiter.retryAfterNanos(null));
+    }
+
+    @Test
+    public void inFlightCapHoldsBackAsyncCallsTest () {
+        RateLimiter limiter = limiter(0, 2);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<CompletableFuture<Integer>> responses = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            responses.add(limiter.executeAsync("api/orders", () -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return CompletableFuture.supplyAsync(() -> {
+                    inFlight.decrementAndGet();
+                    return 200;
+                }, CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS));
+            }, code -> code, response -> null));
+        }
+
+        responses.forEach(CompletableFuture::join);
+        assertTrue("в полёте было " + maxInFlight.get(), maxInFlight.get() <= 2);
+    }
+
+    @Test
+    public void inFlightCapHoldsBackThreadsTest () throws InterruptedException {
+        RateLimiter limiter = limiter(0, 3);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(16);
+
+        for (int i = 0; i < 16; i++) {
+            new Thread(() -> {
+                limiter.execute("api/auth/user", () -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    inFlight.decrementAndGet();
+                    return 200;
+                }, code -> code, response -> null);
+                done.countDown();
+            }).start();
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue("в полёте было " + maxInFlight.get(), maxInFlight.get() <= 3);
+    }
+}
@@ -0,0 +1,134 @@
+package service;
+
+import io.qameta.allure.AllureResultsWriter;
+import io.qameta.allure.model.Status;
+import io.qameta.allure.model.StepResult;
+import io.qameta.allure.model.TestResult;
+import io.qameta.allure.model.TestResultContainer;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReportSamplerTest {
+    private static final String STEP = "POST. Создание заказа. Ручка api/orders.";
+
+    @Test
+    public void everyNthSuccessfulStepIsRecordedTest () {
+        ReportSampler sampler = new ReportSampler(5);
+        int recorded = 0;
+
+        for (int i = 0; i < 20; i++) {
+            sampler.enterStep(STEP);
+            if (sampler.exitStep(STEP, true)) {
+                recorded++;
+            }
+        }
+
+        // первый вызов шага записывается всегда, дальше каждый пятый
+        assertEquals(4, recorded);
+        assertEquals(16, sampler.aggregated(STEP));
+    }
+
+    @Test
+    public void failuresAreAlwaysRecordedTest () {
+        ReportSampler sampler = new ReportSampler(100);
+        sampler.enterStep(STEP);
+        sampler.exitStep(STEP, true);
+
+        for (int i = 0; i < 10; i++) {
+            sampler.enterStep(STEP);
+            assertTrue(sampler.exitStep(STEP, false));
+        }
+
+        assertEquals(0, sampler.aggregated(STEP));
+        assertTrue(sampler.statsInfo(), sampler.statsInfo().contains("      1    10         0  " + STEP));
+    }
+
+    @Test
+    public void responseOutputFollowsEnclosingStepTest () {
+        ReportSampler sampler = new ReportSampler(2);
+
+        // первый шаг в выборке, второй - нет; вывод ответа внутри повторяет решение шага
+        sampler.enterStep(STEP);
+        assertTrue(sampler.record("printResponseInfo", true));
+        sampler.exitStep(STEP, true);
+        sampler.enterStep(STEP);
+        assertFalse(sampler.record("printResponseInfo", true));
+        assertTrue(sampler.record("printResponseInfo", false));
+        sampler.exitStep(STEP, true);
+
+        // вне шагов - своя выборка по ключу
+        assertTrue(sampler.record("api/ingredients", true));
+        assertFalse(sampler.record("api/ingredients", true));
+        assertTrue(sampler.record("api/ingredients", true));
+    }
+
+    @Test
+    public void samplingOffRecordsEverythingTest () {
+        ReportSampler sampler = new ReportSampler(1);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sampler.record("printResponseInfo", true));
+        }
+
+        assertFalse(sampler.isEnabled());
+        assertEquals(0, sampler.aggregated("printResponseInfo"));
+    }
+
+    @Test
+    public void failedOutputKeepsUnsampledStepsTest () {
+        ReportSampler sampler = new ReportSampler(10);
+        sampler.enterStep(STEP);
+        sampler.exitStep(STEP, true);
+
+        // шаг вне выборки закончился PASSED, но ответ внутри него был неуспешным - шаг и родитель остаются
+        sampler.enterStep("Родительский шаг.");
+        sampler.enterStep(STEP);
+        assertTrue(sampler.record("printResponseInfo", false));
+        assertTrue(sampler.exitStep(STEP, true));
+        assertTrue(sampler.exitStep("Родительский шаг.", true));
+    }
+
+    @Test
+    public void failedOutputKeepsStepInAllureResultTest () {
+        ReportSampler sampler = new ReportSampler(10);
+        List<TestResult> written = new ArrayList<>();
+        SampledLifecycle lifecycle = new SampledLifecycle(new AllureResultsWriter() {
+            @Override
+            public void write(TestResult testResult) {
+                written.add(testResult);
+            }
+
+            @Override
+            public void write(TestResultContainer testResultContainer) {
+            }
+
+            @Override
+            public void write(String source, InputStream attachment) {
+            }
+        }, sampler);
+
+        lifecycle.scheduleTestCase(new TestResult().setUuid("test").setName("test"));
+        lifecycle.startTestCase("test");
+        // первый вызов шага в выборке, второй и третий - нет; во втором ответ неуспешный
+        for (int i = 0; i < 3; i++) {
+            lifecycle.startStep("step-" + i, new StepResult().setName(STEP));
+            sampler.record("printResponseInfo", i != 1);
+            lifecycle.updateStep("step-" + i, step -> step.setStatus(Status.PASSED));
+            lifecycle.stopStep("step-" + i);
+        }
+        lifecycle.stopTestCase("test");
+        lifecycle.writeTestCase("test");
+
+        assertEquals(1, written.size());
+        List<StepResult> steps = written.get(0).getSteps();
+        assertEquals(2, steps.size());
+        assertEquals(1, sampler.aggregated(STEP));
+    }
+}
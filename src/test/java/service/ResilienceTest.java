@@ -0,0 +1,249 @@
+package service;
+
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
+import org.junit.Test;
+import stub.StellarBurgersStub;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpStatus.SC_SERVICE_UNAVAILABLE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResilienceTest {
+
+    // короткие паузы и предохранитель по окну из 4 вызовов; бюджет и время размыкания задаёт тест
+    private static Resilience resilience(int budgetMax, long openMs) {
+        return new Resilience(3, 1, 5, 0.1, budgetMax, 4, 4, 0.5, openMs);
+    }
+
+    // сервисный метод: запрос через фильтры базовой спецификации, но в отдельную заглушку
+    private static RequestSpecification request(StellarBurgersStub stub) {
+        return RestAssured.given().spec(Utilities.BASE_SPEC).baseUri(stub.baseUri());
+    }
+
+    // сервисный метод: вызов, отвечающий статус-кодами по порядку (последний повторяется)
+    private static Supplier<Integer> statuses(AtomicInteger calls, int... codes) {
+        return () -> codes[Math.min(calls.getAndIncrement(), codes.length - 1)];
+    }
+
+    @Test
+    public void idempotentRequestIsRetriedUntilSuccessTest () {
+        Resilience resilience = resilience(5, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        int status = resilience.execute("GET", "api/ingredients", statuses(calls, 503, 502, 200), code -> code);
+
+        assertEquals(200, status);
+        assertEquals(3, calls.get());
+        assertEquals(2, resilience.retries());
+    }
+
+    @Test
+    public void postIsRetriedOnlyWhenAskedTest () {
+        Resilience resilience = resilience(5, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        int status = resilience.execute("POST", "api/orders", statuses(calls, 503, 200), code -> code);
+        assertEquals(503, status);
+        assertEquals(1, calls.get());
+
+        calls.set(0);
+        status = Resilience.retryingPost(() -> resilience.execute("POST", "api/orders", statuses(calls, 503, 200), code -> code));
+        assertEquals(200, status);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void clientErrorsAndInternalErrorAreNotRetriedTest () {
+        Resilience resilience = resilience(5, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertEquals(500, (int) resilience.execute("GET", "api/orders", statuses(calls, 500), code -> code));
+        assertEquals(401, (int) resilience.execute("GET", "api/orders", statuses(calls, 401), code -> code));
+
+        assertEquals(2, calls.get());
+        assertEquals("CLOSED", resilience.breakerState("GET", "api/orders"));
+    }
+
+    @Test
+    public void ioErrorIsRetriedAndOtherErrorsPassThroughTest () {
+        Resilience resilience = resilience(5, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        int status = resilience.execute("GET", "api/auth/user", () -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new UncheckedIOException(new IOException("Connection reset"));
+            }
+            return 200;
+        }, code -> code);
+        assertEquals(200, status);
+        assertEquals(2, calls.get());
+
+        try {
+            resilience.execute("GET", "api/auth/user", () -> {
+                throw new IllegalArgumentException("ошибка в вызове");
+            }, code -> 200);
+            fail("исключение должно пройти без повторов");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(1, resilience.retries());
+        }
+    }
+
+    @Test
+    public void budgetLimitsRetriesAcrossRequestsTest () {
+        Resilience resilience = resilience(2, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        // разные ручки, чтобы не мешал предохранитель; бюджета хватает на два повтора
+        for (int i = 0; i < 3; i++) {
+            resilience.execute("GET", "api/path" + i, statuses(calls, 503), code -> code);
+        }
+
+        assertEquals(2, resilience.retries());
+        assertEquals(5, calls.get());
+        assertTrue(resilience.statsInfo(), resilience.statsInfo().contains("GET api/path2"));
+    }
+
+    @Test
+    public void breakerOpensShortCircuitsAndClosesAfterProbeTest () throws InterruptedException {
+        // окно размыкания с запасом: под нагрузкой (параллельные классы) проверка не должна успеть его пропустить
+        Resilience resilience = resilience(0, 500);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            resilience.execute("GET", "api/orders/all", statuses(calls, 503), code -> code);
+        }
+        assertEquals("OPEN", resilience.breakerState("GET", "api/orders/all"));
+        try {
+            resilience.execute("GET", "api/orders/all", statuses(calls, 200), code -> code);
+            fail("разомкнутый предохранитель должен отсечь запрос");
+        } catch (Resilience.CircuitOpenException expected) {
+            assertEquals(4, calls.get());
+        }
+
+        Thread.sleep(600);
+        calls.set(0);
+        assertEquals(200, (int) resilience.execute("GET", "api/orders/all", statuses(calls, 200), code -> code));
+        assertEquals("CLOSED", resilience.breakerState("GET", "api/orders/all"));
+    }
+
+    @Test
+    public void tooManyRequestsIsRetriedButDoesNotOpenBreakerTest () {
+        Resilience resilience = resilience(10, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            resilience.execute("GET", "api/ingredients", statuses(calls, 429), code -> code);
+        }
+
+        assertEquals(12, calls.get());
+        assertEquals("CLOSED", resilience.breakerState("GET", "api/ingredients"));
+    }
+
+    @Test
+    public void tooManyRequestsIsRetriedForPostTest () {
+        Resilience resilience = resilience(10, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        int status = resilience.execute("POST", "api/auth/register", statuses(calls, 429, 200), code -> code);
+        assertEquals(200, status);
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        CompletableFuture<Integer> async = resilience.executeAsync("POST", "api/orders",
+                () -> CompletableFuture.completedFuture(calls.getAndIncrement() == 0 ? 429 : 200), code -> code);
+        assertEquals(200, (int) async.join());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void asyncRequestIsRetriedWithoutBlockingTest () {
+        Resilience resilience = resilience(5, 1_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<Integer> status = resilience.executeAsync("DELETE", "api/auth/user",
+                () -> CompletableFuture.completedFuture(calls.getAndIncrement() < 2 ? 504 : 202), code -> code);
+
+        assertEquals(202, (int) status.join());
+        assertEquals(3, calls.get());
+    }
+
+    @Test
+    public void restAssuredRequestIsSentAgainAfterServiceUnavailableTest () throws IOException {
+        StellarBurgersStub stub = new StellarBurgersStub(0).start();
+        try {
+            long retries = Resilience.shared().retries();
+            stub.failNext(2);
+
+            Response response = request(stub).get(Utilities.GET_INGREDIENTS);
+
+            assertEquals(SC_OK, response.getStatusCode());
+            assertTrue(response.path("success"));
+            assertEquals(2, Resilience.shared().retries() - retries);
+            // ключи ручки те же, что у AsyncTransport и в -Dratelimit.rps.api/ingredients
+            assertTrue(Resilience.shared().statsInfo().contains("GET api/ingredients "));
+            assertFalse(RateLimiter.shared().statsInfo().contains("/api/ingredients"));
+        } finally {
+            stub.stop();
+        }
+    }
+
+    @Test
+    public void retriedPostResendsSameBodyTest () throws IOException {
+        StellarBurgersStub stub = new StellarBurgersStub(0).start();
+        try {
+            stub.failNext(1);
+
+            Response response = Resilience.retryingPost(() -> request(stub)
+                    .body(JsonBodies.user(new User("resend@test.ru", "secret", "resend")))
+                    .post(Utilities.USER_CREATE));
+
+            assertEquals(SC_OK, response.getStatusCode());
+            assertEquals("resend@test.ru", response.path("user.email"));
+            assertEquals(1, stub.userCount());
+        } finally {
+            stub.stop();
+        }
+    }
+
+    @Test
+    public void lastServiceUnavailableIsReturnedWhenAttemptsRunOutTest () throws IOException {
+        StellarBurgersStub stub = new StellarBurgersStub(0).start();
+        try {
+            stub.failNext(Resilience.MAX_ATTEMPTS);
+
+            Response response = request(stub).get(Utilities.GET_INGREDIENTS);
+
+            assertEquals(SC_SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("Service temporarily unavailable", response.path("message"));
+            // следующий запрос уже проходит
+            assertEquals(SC_OK, request(stub).get(Utilities.GET_INGREDIENTS).getStatusCode());
+        } finally {
+            stub.stop();
+        }
+    }
+
+    @Test
+    public void unreadBodiesDoNotHoldPooledConnectionsTest () throws IOException {
+        StellarBurgersStub stub = new StellarBurgersStub(0).start();
+        try {
+            // как при -Dlog.level=OFF или выборке ReportSampler: тело ответа никто не читает,
+            // а запросов больше, чем соединений пула на один адрес
+            for (int i = 0; i < HttpTransport.MAX_PER_ROUTE + 5; i++) {
+                assertEquals(SC_OK, request(stub).get(Utilities.ORDER_GET_ALL).getStatusCode());
+            }
+        } finally {
+            stub.stop();
+        }
+    }
+}
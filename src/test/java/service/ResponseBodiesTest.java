@@ -0,0 +1,73 @@
+package service;
+
+import io.restassured.builder.ResponseBuilder;
+import io.restassured.response.Response;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ResponseBodiesTest {
+
+    // сервисный метод сборки ответа без запроса к серверу
+    private static Response response(int statusCode, String body) {
+        return new ResponseBuilder().setStatusCode(statusCode).setBody(body).build();
+    }
+
+    @Test
+    public void bodyIsParsedOncePerResponseTest () {
+        Response response = response(200, "{\"success\":true,\"user\":{\"email\":\"a@b.ru\",\"name\":\"Имя\"},"
+                + "\"accessToken\":\"Bearer abc\",\"refreshToken\":\"def\"}");
+
+        UserResponse first = UserResponse.of(response);
+
+        assertSame(first, UserResponse.of(response));
+        // базовый тип берётся из уже разобранного наследника
+        assertSame(first, TypedResponse.of(response));
+        assertEquals("a@b.ru", first.getEmail());
+        assertEquals("abc", first.getCleanAccessToken());
+        assertEquals(200, first.getStatusCode());
+        first.assertUserWithTokens(200, new User("a@b.ru", "password", "Имя"));
+    }
+
+    @Test
+    public void orderIngredientsAreIdsInListsAndObjectsInCreatedOrderTest () {
+        OrderResponse created = OrderResponse.of(response(200, "{\"success\":true,\"name\":\"Бургер\","
+                + "\"order\":{\"number\":7,\"ingredients\":[{\"_id\":\"i1\",\"name\":\"Булка\"}],"
+                + "\"owner\":{\"name\":\"Имя\",\"email\":\"a@b.ru\"}}}"));
+        OrderResponse list = OrderResponse.of(response(200, "{\"success\":true,"
+                + "\"orders\":[{\"_id\":\"o1\",\"number\":7,\"ingredients\":[\"i1\",\"i2\"]}],\"total\":1}"));
+
+        created.assertCreatedFor(new User("a@b.ru", "password", "Имя"), "i1");
+        list.assertOrderList();
+        assertEquals(Arrays.asList("i1", "i2"), list.getOrders().get(0).getIngredientIds());
+    }
+
+    @Test
+    public void ingredientIdOutOfRangeIsNullTest () {
+        IngredientsResponse ingredients = IngredientsResponse.of(response(200,
+                "{\"success\":true,\"data\":[{\"_id\":\"i1\",\"name\":\"Булка\",\"type\":\"bun\",\"price\":988}]}"));
+
+        ingredients.assertNotEmpty();
+        assertEquals("i1", ingredients.getIngredientId(0));
+        assertNull(ingredients.getIngredientId(1));
+    }
+
+    @Test
+    public void nonJsonBodyGivesEmptyResponseTest () {
+        TypedResponse notFound = TypedResponse.of(response(404, "<html>Not Found</html>"));
+
+        notFound.assertStatus(404);
+        assertNull(notFound.getSuccess());
+        assertEquals("<html>Not Found</html>", ResponseBodies.asString(response(404, "<html>Not Found</html>")));
+    }
+
+    @Test(expected = AssertionError.class)
+    public void assertionReportsMismatchTest () {
+        TypedResponse.of(response(401, "{\"success\":false,\"message\":\"You should be authorised\"}"))
+                .assertMessage(401, false, "email or password are incorrect");
+    }
+}
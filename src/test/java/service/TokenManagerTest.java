@@ -0,0 +1,135 @@
+package service;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TokenManagerTest {
+
+    // сервисный метод сборки JWT с нужным полем exp (подпись не проверяется)
+    private static String jwt(long expSeconds) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(String.format("{\"id\":\"1\",\"exp\":%d}", expSeconds).getBytes(StandardCharsets.UTF_8));
+        return header + "." + payload + ".signature";
+    }
+
+    @Test
+    public void decodeExpiryReadsExpClaimTest () {
+        assertEquals(1_700_000_000_000L, TokenManager.decodeExpiry(jwt(1_700_000_000L)));
+    }
+
+    @Test
+    public void decodeExpiryOfMalformedTokenIsUnlimitedTest () {
+        assertEquals(Long.MAX_VALUE, TokenManager.decodeExpiry("not-a-jwt"));
+    }
+
+    @Test
+    public void validTokenIsReturnedWithoutRefreshTest () {
+        AtomicInteger refreshes = new AtomicInteger();
+        TokenManager manager = new TokenManager(refreshToken -> {
+            refreshes.incrementAndGet();
+            return new TokenManager.Tokens(jwt(nowSeconds() + 3600), "refresh-2");
+        });
+        String accessToken = jwt(nowSeconds() + 3600);
+        manager.put("user@test.ru", accessToken, "refresh-1");
+
+        assertEquals(accessToken, manager.getAccessToken("user@test.ru"));
+        assertEquals(0, refreshes.get());
+        assertNull(manager.getAccessToken("unknown@test.ru"));
+    }
+
+    @Test
+    public void concurrentCallersShareOneRefreshTest () throws Exception {
+        AtomicInteger refreshes = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        String freshToken = jwt(nowSeconds() + 3600);
+        TokenManager manager = new TokenManager(refreshToken -> {
+            refreshes.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new TokenManager.Tokens(freshToken, "refresh-2");
+        });
+        // токен уже истёк, каждый вызов потребует обновления
+        manager.put("user@test.ru", jwt(nowSeconds() - 10), "refresh-1");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> manager.getAccessToken("user@test.ru")));
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Future<String> result : results) {
+            assertEquals(freshToken, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(1, refreshes.get());
+    }
+
+    @Test
+    public void onlyReusedTokenIsRefreshedInBackgroundTest () throws Exception {
+        CountDownLatch refreshed = new CountDownLatch(1);
+        TokenManager manager = new TokenManager(refreshToken -> {
+            refreshed.countDown();
+            return new TokenManager.Tokens(jwt(nowSeconds() + 3600), "refresh-2");
+        });
+        // до порога обновления остаётся около секунды
+        long expSeconds = nowSeconds() + TokenManager.REFRESH_AHEAD_SECONDS + 2;
+        manager.put("once@test.ru", jwt(expSeconds), "refresh-1");
+        manager.put("reused@test.ru", jwt(expSeconds), "refresh-1");
+
+        // один раз взятый токен (пользователя создали и удаляют) в фоне не обновляется
+        manager.getAccessToken("once@test.ru");
+        assertFalse(manager.isScheduled("once@test.ru"));
+
+        manager.getAccessToken("reused@test.ru");
+        manager.getAccessToken("reused@test.ru");
+        assertTrue(manager.isScheduled("reused@test.ru"));
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+
+        manager.remove("reused@test.ru");
+        assertFalse(manager.isScheduled("reused@test.ru"));
+    }
+
+    @Test
+    public void tokenIssuedBeforeRefreshStillRemovesUserTest () {
+        String freshToken = jwt(nowSeconds() + 7200);
+        TokenManager manager = new TokenManager(refreshToken -> new TokenManager.Tokens(freshToken, "refresh-2"));
+        String issuedToken = jwt(nowSeconds() + 3600);
+        manager.put("user@test.ru", issuedToken, "refresh-1");
+        manager.put("other@test.ru", "other-token", "refresh-1");
+
+        // тест держит токен, выданный до обновления, и удаляет по нему пользователя
+        manager.refresh("user@test.ru");
+        assertEquals("user@test.ru", manager.getKey(issuedToken));
+        manager.removeByAccessToken(issuedToken);
+
+        assertNull(manager.getTokens("user@test.ru"));
+        assertNull(manager.getKey(issuedToken));
+        assertNull(manager.getKey(freshToken));
+        assertEquals("other-token", manager.getAccessToken("other@test.ru"));
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
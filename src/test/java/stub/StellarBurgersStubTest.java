@@ -0,0 +1,103 @@
+package stub;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StellarBurgersStubTest {
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private StellarBurgersStub stub;
+
+    @Before
+    public void setUp () throws IOException {
+        stub = new StellarBurgersStub(0).start();
+    }
+
+    // сервисный метод отправки запроса в заглушку
+    private HttpResponse<String> send(String method, String path, String body, String accessToken) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(stub.baseUri() + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (accessToken != null) {
+            builder.header("Authorization", "Bearer " + accessToken);
+        }
+        return CLIENT.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static JsonObject json(HttpResponse<String> response) {
+        return JsonParser.parseString(response.body()).getAsJsonObject();
+    }
+
+    @Test
+    public void userAndOrderFlowTest () throws Exception {
+        String user = "{\"email\":\"stub@test.ru\",\"password\":\"secret\",\"name\":\"stub\"}";
+        HttpResponse<String> register = send("POST", "api/auth/register", user, null);
+        assertEquals(200, register.statusCode());
+        String accessToken = json(register).get("accessToken").getAsString().substring(7);
+
+        // повторная регистрация запрещена
+        HttpResponse<String> duplicate = send("POST", "api/auth/register", user, null);
+        assertEquals(403, duplicate.statusCode());
+        assertEquals("User already exists", json(duplicate).get("message").getAsString());
+
+        // неверный пароль
+        HttpResponse<String> badLogin = send("POST", "api/auth/login", "{\"email\":\"stub@test.ru\",\"password\":\"x\"}", null);
+        assertEquals(401, badLogin.statusCode());
+
+        // заказ с настоящим ингредиентом
+        HttpResponse<String> order = send("POST", "api/orders", "{\"ingredients\":[\"61c0c5a71d1f82001bdaaa6d\"]}", accessToken);
+        assertEquals(200, order.statusCode());
+        assertEquals("stub@test.ru", json(order).getAsJsonObject("order").getAsJsonObject("owner").get("email").getAsString());
+
+        // пустой и неверный список ингредиентов
+        assertEquals(400, send("POST", "api/orders", "{\"ingredients\":[]}", accessToken).statusCode());
+        assertEquals(500, send("POST", "api/orders", "{\"ingredients\":[\"000000000000000000000000\"]}", null).statusCode());
+
+        // заказ виден в ленте пользователя и в общей ленте
+        assertEquals(1, json(send("GET", "api/orders", null, accessToken)).getAsJsonArray("orders").size());
+        assertEquals(1, json(send("GET", "api/orders/all", null, null)).get("total").getAsInt());
+
+        // удаление без токена и с токеном
+        assertEquals(401, send("DELETE", "api/auth/user", null, null).statusCode());
+        HttpResponse<String> delete = send("DELETE", "api/auth/user", null, accessToken);
+        assertEquals(202, delete.statusCode());
+        assertEquals("User successfully removed", json(delete).get("message").getAsString());
+        assertEquals(0, stub.userCount());
+    }
+
+    @Test
+    public void ingredientsSupportConditionalRequestsTest () throws Exception {
+        HttpResponse<String> first = send("GET", "api/ingredients", null, null);
+        assertEquals(200, first.statusCode());
+        assertTrue(json(first).getAsJsonArray("data").size() > 0);
+
+        String eTag = first.headers().firstValue("ETag").orElseThrow();
+        HttpRequest conditional = HttpRequest.newBuilder(URI.create(stub.baseUri() + "api/ingredients"))
+                .header("If-None-Match", eTag)
+                .build();
+        assertEquals(304, CLIENT.send(conditional, HttpResponse.BodyHandlers.ofString()).statusCode());
+    }
+
+    @Test
+    public void errorInjectionReturnsServiceUnavailableTest () throws Exception {
+        stub.setErrorRate(1.0);
+
+        assertEquals(503, send("GET", "api/ingredients", null, null).statusCode());
+    }
+
+    @After
+    public void tearDown () {
+        stub.stop();
+    }
+}
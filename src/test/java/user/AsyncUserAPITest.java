@@ -0,0 +1,96 @@
+package user;
+
+import api.AsyncUserAPI;
+import io.qameta.allure.Description;
+import io.qameta.allure.junit4.DisplayName;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.ApiResponse;
+import service.User;
+import stub.StellarBurgersStub;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+
+import static org.apache.http.HttpStatus.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+// асинхронный клиент против отдельной заглушки: ответы не проходят через фильтры RestAssured
+public class AsyncUserAPITest {
+    private static StellarBurgersStub stub;
+    private static AsyncUserAPI asyncUserAPI;
+
+    @BeforeClass
+    public static void startStub () throws IOException {
+        stub = new StellarBurgersStub(0).start();
+        asyncUserAPI = new AsyncUserAPI(stub.baseUri());
+    }
+
+    @AfterClass
+    public static void stopStub () {
+        stub.stop();
+    }
+
+    private static User randomUser() {
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        return new User(String.format("async-%s@stellar-test.ru", id), "pwd-" + id, "async-" + id);
+    }
+
+    // сервисный метод: адрес, на котором никто не слушает
+    private static String closedPortUri() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return "http://127.0.0.1:" + socket.getLocalPort() + "/";
+        }
+    }
+
+    @Test
+    @DisplayName("Тест асинхронного создания, чтения и удаления пользователя.")
+    @Description("Проверяется, что асинхронный клиент создаёт пользователя, получает его данные по токену и удаляет его.")
+    public void userCreatedReadAndDeletedTest () {
+        User user = randomUser();
+
+        ApiResponse created = asyncUserAPI.userCreating(user).join();
+        assertEquals(SC_OK, created.getStatusCode());
+        assertEquals(true, created.path("success"));
+        String accessToken = AsyncUserAPI.getAccessToken(created);
+
+        ApiResponse userData = asyncUserAPI.getUserData(accessToken).join();
+        assertEquals(SC_OK, userData.getStatusCode());
+        assertEquals(user.getEmail(), userData.path("user.email"));
+
+        ApiResponse deleted = asyncUserAPI.deleteUser(accessToken).join();
+        assertEquals(SC_ACCEPTED, deleted.getStatusCode());
+        assertEquals("User successfully removed", deleted.path("message"));
+    }
+
+    @Test
+    @DisplayName("Тест ответа с ошибкой в асинхронном клиенте.")
+    @Description("Проверяется, что ответ не 200 возвращается вызывающему как есть, а не исключением.")
+    public void errorResponseIsReturnedAsIsTest () {
+        ApiResponse userData = asyncUserAPI.getUserData(null).join();
+
+        assertEquals(SC_UNAUTHORIZED, userData.getStatusCode());
+        assertEquals(false, userData.path("success"));
+        assertEquals("You should be authorised", userData.path("message"));
+    }
+
+    @Test
+    @DisplayName("Тест недоступного бэкенда в асинхронном клиенте.")
+    @Description("Проверяется, что ошибка соединения завершает CompletableFuture исключением ввода-вывода.")
+    public void connectFailureCompletesExceptionallyTest () throws IOException {
+        AsyncUserAPI unreachable = new AsyncUserAPI(closedPortUri());
+
+        try {
+            // POST не повторяется, ошибка приходит после первой попытки
+            unreachable.loginUser(randomUser()).join();
+            fail("запрос к закрытому порту завершился без ошибки");
+        } catch (CompletionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+        }
+    }
+}
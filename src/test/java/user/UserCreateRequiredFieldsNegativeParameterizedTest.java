@@ -1,21 +1,24 @@
 package user;
 
+import api.CleanupRegistry;
 import api.UserAPI;
 import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
-import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import runner.ParallelParameterized;
 import net.datafaker.Faker;
 import service.User;
 
+import static org.junit.Assert.assertTrue;
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
+import static service.Utilities.checkNegativeResponse;
 
-@RunWith(Parameterized.class)
+@RunWith(ParallelParameterized.class)
 public class UserCreateRequiredFieldsNegativeParameterizedTest {
     // фейковые данные
     private static Faker faker = new Faker();
@@ -62,26 +65,13 @@ public class UserCreateRequiredFieldsNegativeParameterizedTest {
     @Description("Проверяется возможность создать пользователя без указания одного из обязательных полей.")
     public void createUserWithWithoutOneOfRequiredFieldTest () {
         // проверяется тело ответа
-        response.then().assertThat()
-                .statusCode(SC_FORBIDDEN)
-                .body("success", equalTo(false),
-                        "message", equalTo("Email, password and name are required fields")
-                );
+        checkNegativeResponse(response, SC_FORBIDDEN, false, "Email, password and name are required fields");
     }
 
-    @After /// Если пользователь вдруг всё-таки создался
-    public void deleteUser () {
-        if (response.getStatusCode()==SC_OK) {
-            String accessToken = userAPI.getAccessToken(response);
-            Response deleteUserResponse = userAPI.deleteUser(accessToken);
-            // проверка статуса и тела ответа
-            deleteUserResponse.then()
-                    .assertThat()
-                    .statusCode(SC_ACCEPTED)
-                    .body(
-                            "success", equalTo(true),
-                            "message", equalTo("User successfully removed")
-                    );
-        }
+    @AfterClass /// Удаляем созданных в классе пользователей одним пакетом
+    public static void postconditions () {
+        CleanupRegistry.Report report = CleanupRegistry.flush(UserCreateRequiredFieldsNegativeParameterizedTest.class);
+        // проверка, что все пользователи удалены
+        assertTrue(report.toString(), report.getFailures().isEmpty());
     }
 }
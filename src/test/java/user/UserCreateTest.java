@@ -1,20 +1,28 @@
 package user;
 
+import api.CleanupRegistry;
 import api.UserAPI;
 import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
 import net.datafaker.Faker;
-import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import runner.VirtualThreadRunner;
+import service.Log;
 import service.User;
+import service.UserResponse;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
 import static service.Utilities.checkNegativeResponse;
+import static service.Utilities.checkUserPositiveResponse;
 
+@RunWith(VirtualThreadRunner.class)
 public class UserCreateTest {
     // поля класса
     private Faker faker;
@@ -46,21 +54,14 @@ public class UserCreateTest {
     @Description("Проверяется возможность создать пользователя с валидными данными во всех обязательных полях.")
     public void createUserWithAllRequiredFieldsTest () {
         /// Проверка статуса и тела ответа
-        userCreatingResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName()),
-                        "accessToken", notNullValue(),
-                        "refreshToken", notNullValue()
-                );
+        checkUserPositiveResponse(userCreatingResponse, user, SC_OK, true);
     }
 
     @Test
     @DisplayName("Негативная проверка повторного создания пользователя, уже существующего в бд.")
     @Description("Проверяется возможность создать пользователя, с теми же самыми данными, с которыми он уже был ранее создан.")
     public void createSameUserTest () {
-        System.out.println("\uD83D\uDD35 Попытка создать пользователя с теми же данными.\n");
+        Log.info("\uD83D\uDD35 Попытка создать пользователя с теми же данными.\n");
 
         // отправляем повторный запрос с теми же данными
         Response secondResponse = userAPI.userCreating(user);
@@ -69,16 +70,26 @@ public class UserCreateTest {
         checkNegativeResponse(secondResponse, SC_FORBIDDEN, false, "User already exists");
     }
 
-    @After /// Удаляем пользователя
-    public void postconditions () {
-        Response deleteUserResponse = userAPI.deleteUser(accessToken);
-        // проверка статуса и тела ответа
-        deleteUserResponse.then()
-                .assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+    @Test
+    @DisplayName("Проверка получения действующего accessToken из кэша токенов и через логин.")
+    @Description("Проверяется, что токен после регистрации берётся из кэша, а без токенов в кэше выполняется вход.")
+    public void getValidAccessTokenTest () {
+        // токен после регистрации уже в кэше, запроса логина нет
+        String cachedAccessToken = userAPI.getValidAccessToken(user);
+        assertEquals(accessToken, cachedAccessToken);
+
+        // без токенов в кэше выполняется вход, новый токен принимается бэкендом
+        UserAPI.TOKENS.remove(email);
+        String loginAccessToken = userAPI.getValidAccessToken(user);
+        assertNotNull(loginAccessToken);
+        UserResponse.of(userAPI.getUserData(user, loginAccessToken)).assertUser(SC_OK, user);
+    }
+
+    @AfterClass /// Удаляем созданных в классе пользователей одним пакетом
+    public static void postconditions () {
+        CleanupRegistry.Report report = CleanupRegistry.flush(UserCreateTest.class);
+        // пользователи из @Before записаны на этот класс раннером и удалены все
+        assertTrue(report.toString(), report.getDeleted() > 0);
+        assertTrue(report.toString(), report.getFailures().isEmpty());
     }
 }
@@ -5,18 +5,25 @@ import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
 import net.datafaker.Faker;
-import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import runner.Fixture;
+import runner.ParallelParameterized;
+import service.Log;
+import service.TypedResponse;
 import service.User;
+import service.UserResponse;
 
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
+import static service.Utilities.checkNegativeResponse;
 import static service.Utilities.checkUserPositiveResponse;
 
-@RunWith(Parameterized.class)
+// все строки параметров входят с неверными данными к одному и тому же пользователю и его не меняют,
+// поэтому пользователь создаётся один раз на класс, а строки выполняются одновременно
+@RunWith(ParallelParameterized.class)
 public class UserLoginNegativeParameterizedTest {
     // фейковые данные
     private static Faker faker = new Faker();
@@ -25,13 +32,12 @@ public class UserLoginNegativeParameterizedTest {
     private static String userName = faker.name().username();
     private static String newUserEmail = faker.internet().emailAddress();
     private static String newUserPassword = faker.internet().password();
+    // общая фикстура: accessToken зарегистрированного и проверенного пользователя
+    private static final Fixture<String> ACCESS_TOKEN = Fixture.of(UserLoginNegativeParameterizedTest::registerUser);
 
     // переменные класса
     private UserAPI userAPI;
     private User user;
-    private Response response;
-    private String refreshToken;
-    private String accessToken;
 
     // переменные параметров
     private final String email;
@@ -56,26 +62,21 @@ public class UserLoginNegativeParameterizedTest {
         };
     }
 
-    @Before
-    public void preconditions () {
-        userAPI = new UserAPI();
-        user = new User(userEmail, userPassword, userName);
+    // создание пользователя для всех строк: регистрация, проверка входа и выход из системы
+    private static String registerUser () {
+        UserAPI userAPI = new UserAPI();
+        User user = new User(userEmail, userPassword, userName);
         // создали пользователя
-        response = userAPI.userCreating(user);
+        Response response = userAPI.userCreating(user);
         // проверили статус и тело
         checkUserPositiveResponse(response, user, SC_OK, true);
         // получили токены
-        accessToken = userAPI.getAccessToken(response);
-        refreshToken = userAPI.getRefreshToken(response);
+        String accessToken = userAPI.getAccessToken(response);
+        String refreshToken = userAPI.getRefreshToken(response);
         // отобразили данные пользователя
         Response getUserDataResponse =  userAPI.getUserData(user, accessToken);
         // проверка статуса и тела ответа
-        getUserDataResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body( "success", equalTo(true),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName())
-                );
+        UserResponse.of(getUserDataResponse).assertUser(SC_OK, user);
         // вошли в систему, чтобы убедиться, что созданный пользователь имеет доступ
         response = userAPI.loginUser(user);
         // проверили статус и тело
@@ -83,12 +84,16 @@ public class UserLoginNegativeParameterizedTest {
         // вышли из системы
         Response logoutUserResponse = userAPI.logoutUser(refreshToken);
         // проверили статус и тело
-        logoutUserResponse.then()
-                .assertThat()
-                .statusCode(SC_OK)
-                .body( "success", equalTo(true),
-                        "message", equalTo("Successful logout")
-                );
+        TypedResponse.of(logoutUserResponse).assertMessage(SC_OK, true, "Successful logout");
+
+        return accessToken;
+    }
+
+    @Before
+    public void preconditions () {
+        userAPI = new UserAPI();
+        // своя копия данных пользователя: строка меняет в ней поля запроса
+        user = new User(userEmail, userPassword, userName);
     }
 
     @Test
@@ -99,20 +104,20 @@ public class UserLoginNegativeParameterizedTest {
         // заменили в запросе только емэйл
         if (!email.equals(userEmail) && password.equals(userPassword)) {
             user.setEmail(email);
-            System.out.println(String.format("\uD83D\uDD35 Поле email изменено в запросе на \"%s\"%n", email));
+            Log.info(String.format("\uD83D\uDD35 Поле email изменено в запросе на \"%s\"%n", email));
         }
 
         // заменили в запросе только пароль
         if (email.equals(userEmail) && !password.equals(userPassword)) {
             user.setPassword(password);
-            System.out.println(String.format("\uD83D\uDD35 Поле password изменено в запросе на \"%s\"%n", password));
+            Log.info(String.format("\uD83D\uDD35 Поле password изменено в запросе на \"%s\"%n", password));
         }
 
         // заменили в запросе оба поля
         if (!email.equals(userEmail) && !password.equals(userPassword)) {
             user.setEmail(email);
             user.setPassword(password);
-            System.out.println(String.format("\uD83D\uDD35 В запросе изменены оба поля.%n" +
+            Log.info(String.format("\uD83D\uDD35 В запросе изменены оба поля.%n" +
                     "Новый email в запросе: %s%n" +
                     "Новый password в запросе: %s%n", email, password));
         }
@@ -120,23 +125,16 @@ public class UserLoginNegativeParameterizedTest {
         /// Проверяем повторный вход в систему с новыми данными
         Response secondResponse = userAPI.loginUser(user);
         // проверяем статус и ответ
-        secondResponse.then().assertThat()
-                .statusCode(SC_UNAUTHORIZED)
-                .body("success", equalTo(false),
-                        "message", equalTo("email or password are incorrect")
-                );
+        checkNegativeResponse(secondResponse, SC_UNAUTHORIZED, false, "email or password are incorrect");
     }
 
-    @After /// Удаляем пользователя
-    public void postconditions () {
-        Response deleteUserResponse = userAPI.deleteUser(accessToken);
+    @AfterClass /// Удаляем пользователя
+    public static void postconditions () {
+        if (!ACCESS_TOKEN.isInitialized()) {
+            return;
+        }
+        Response deleteUserResponse = new UserAPI().deleteUser(ACCESS_TOKEN.get());
         // проверка статуса и тела ответа
-        deleteUserResponse.then()
-                .assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+        TypedResponse.of(deleteUserResponse).assertMessage(SC_ACCEPTED, true, "User successfully removed");
     }
 }
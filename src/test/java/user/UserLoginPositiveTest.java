@@ -1,21 +1,25 @@
 package user;
 
+import api.CleanupRegistry;
 import api.UserAPI;
 import io.qameta.allure.Description;
 import io.qameta.allure.junit4.DisplayName;
 import io.restassured.response.Response;
 import net.datafaker.Faker;
-import org.junit.After;
+import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
+import org.junit.runner.RunWith;
+import runner.VirtualThreadRunner;
 import service.User;
+import service.UserResponse;
 
+import static org.junit.Assert.assertTrue;
 import static org.apache.http.HttpStatus.SC_ACCEPTED;
 import static org.apache.http.HttpStatus.SC_OK;
-import static org.hamcrest.CoreMatchers.equalTo;
-import static org.hamcrest.CoreMatchers.notNullValue;
 import static service.Utilities.checkUserPositiveResponse;
 
+@RunWith(VirtualThreadRunner.class)
 public class UserLoginPositiveTest {
     // фейковые данные
     private static Faker faker = new Faker();
@@ -40,12 +44,7 @@ public class UserLoginPositiveTest {
         // отобразили данные пользователя
         Response getUserDataResponse =  userAPI.getUserData(user, accessToken);
         // проверка статуса и тела ответа
-        getUserDataResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body( "success", equalTo(true),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName())
-                );
+        UserResponse.of(getUserDataResponse).assertUser(SC_OK, user);
     }
 
     @Test
@@ -55,26 +54,13 @@ public class UserLoginPositiveTest {
         // вошли в систему
         Response loginUserResponse = userAPI.loginUser(user);
         // проверили статус и тело
-        loginUserResponse.then().assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "accessToken", notNullValue(),
-                        "refreshToken", notNullValue(),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName())
-                );
+        checkUserPositiveResponse(loginUserResponse, user, SC_OK, true);
     }
 
-    @After /// Удаляем пользователя
-    public void postconditions () {
-        Response deleteUserResponse = userAPI.deleteUser(accessToken);
-        // проверка статуса и тела ответа
-        deleteUserResponse.then()
-                .assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+    @AfterClass /// Удаляем созданных в классе пользователей одним пакетом
+    public static void postconditions () {
+        CleanupRegistry.Report report = CleanupRegistry.flush(UserLoginPositiveTest.class);
+        // проверка, что все пользователи удалены
+        assertTrue(report.toString(), report.getFailures().isEmpty());
     }
 }
@@ -10,22 +10,25 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
+import runner.ParallelParameterized;
+import service.Log;
+import service.TypedResponse;
 import service.User;
+import service.UserResponse;
 
 import static org.apache.http.HttpStatus.*;
-import static org.hamcrest.CoreMatchers.equalTo;
 import static service.Utilities.checkNegativeResponse;
 import static service.Utilities.checkUserPositiveResponse;
 
-@RunWith(Parameterized.class)
+// строки меняют данные пользователя на сервере, поэтому у каждой строки свой пользователь
+// со своими фейковыми данными - так строки не мешают друг другу и выполняются одновременно
+@RunWith(ParallelParameterized.class)
 public class UserPatchDataParameterizedTest {
-    // фейковые данные
-    private static Faker faker = new Faker();
-    private static final String userEmail = faker.internet().emailAddress();
-    private static final String userPassword = faker.internet().password();
-    private static final String userName = faker.name().username();
-    private static final String newUserEmail = faker.internet().emailAddress();
-    private static final String newUserName = faker.internet().password();
+    // фейковые данные, у каждой строки свои
+    private final Faker faker = new Faker();
+    private final String userEmail = faker.internet().emailAddress();
+    private final String userPassword = faker.internet().password();
+    private final String userName = faker.name().username();
 
     // переменные класса
     private UserAPI userAPI = new UserAPI();
@@ -33,14 +36,14 @@ public class UserPatchDataParameterizedTest {
     private Response response;
     private String accessToken;
 
-    // переменные параметров
+    // переменные параметров: какие поля меняются в запросе
     private final String email;
     private final String name;
     private final String testName;
     // конструктор
-    public UserPatchDataParameterizedTest (String email, String name, String testName) {
-        this.email=email;
-        this.name=name;
+    public UserPatchDataParameterizedTest (boolean changeEmail, boolean changeName, String testName) {
+        this.email = changeEmail ? faker.internet().emailAddress() : userEmail;
+        this.name = changeName ? faker.internet().password() : userName;
         this.testName=testName;
     }
 
@@ -48,10 +51,10 @@ public class UserPatchDataParameterizedTest {
     @Parameterized.Parameters (name="{2}")
     public static Object[][] data () {
         return new Object[][] {
-                {userEmail, userName, "Позитивный кейс: данные не меняли"},
-                {newUserEmail, userName, "Позитивный кейс: меняем емэйл, не меняем имя"},
-                {userEmail, newUserName, "Позитивный кейс: не меняем емэйл, меняем имя"},
-                {newUserEmail, newUserName, "Позитивный кейс: меняются оба поля"}
+                {false, false, "Позитивный кейс: данные не меняли"},
+                {true, false, "Позитивный кейс: меняем емэйл, не меняем имя"},
+                {false, true, "Позитивный кейс: не меняем емэйл, меняем имя"},
+                {true, true, "Позитивный кейс: меняются оба поля"}
         };
     }
 
@@ -67,13 +70,7 @@ public class UserPatchDataParameterizedTest {
         // отобразили данные пользователя
         Response getUserDataResponse =  userAPI.getUserData(user, accessToken);
         // проверка статуса и тела ответа
-        getUserDataResponse.then()
-                .assertThat()
-                .statusCode(SC_OK)
-                .body( "success", equalTo(true),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName())
-                );
+        UserResponse.of(getUserDataResponse).assertUser(SC_OK, user);
     }
 
     @Test
@@ -83,26 +80,26 @@ public class UserPatchDataParameterizedTest {
          /// Определяем условия для проверок.
         // если данные не менялись
         if (email.equals(userEmail) && name.equals(userName)) {
-            System.out.println("\uD83D\uDD35 Данные в запросе не изменены.\nОтправляется запрос на изменение.\n");
+            Log.info("\uD83D\uDD35 Данные в запросе не изменены.\nОтправляется запрос на изменение.\n");
         }
 
         // меняем только емэйл
         if (!email.equals(userEmail) && name.equals(userName)) {
             user.setEmail(email);
-            System.out.println(String.format("\uD83D\uDD35 Сменили в запросе поле email на \"%s\".%n", email));
+            Log.info(String.format("\uD83D\uDD35 Сменили в запросе поле email на \"%s\".%n", email));
         }
 
         // меняем только имя
         if (email.equals(userEmail) && !name.equals(userName)) {
             user.setName(name);
-            System.out.println(String.format("\uD83D\uDD35 Сменили в запросе поле name на \"%s\".%n", name));
+            Log.info(String.format("\uD83D\uDD35 Сменили в запросе поле name на \"%s\".%n", name));
         }
 
         // меняем оба поля
         if (!email.equals(userEmail) && !name.equals(userName)) {
             user.setEmail(email);
             user.setName(name);
-            System.out.println(String.format("\uD83D\uDD35 Сменили в запросе оба поля.%n" +
+            Log.info(String.format("\uD83D\uDD35 Сменили в запросе оба поля.%n" +
                     "Новый email в запросе: \"%s\".%n" +
                     "Новый name в запросе: \"%s\".%n", email, name));
         }
@@ -110,13 +107,7 @@ public class UserPatchDataParameterizedTest {
         // запрос на изменение данных и вывод на экран новых данных
         Response patchResponse = userAPI.changeUserData(user, accessToken);
         // проверяем, что в теле ответа поля email и name совпадают с переданными в патч-запросе
-        patchResponse.then()
-                .assertThat()
-                .statusCode(SC_OK)
-                .body("success", equalTo(true),
-                        "user.email", equalTo(user.getEmail()),
-                        "user.name", equalTo(user.getName())
-                );
+        UserResponse.of(patchResponse).assertUser(SC_OK, user);
     }
 
     @Test
@@ -124,7 +115,7 @@ public class UserPatchDataParameterizedTest {
     @Description("Проверяется возможность смены данных неавторизованного пользователя.")
     public void userNonAuthorizedPatchDataTest () {
         // запрос на изменение данных без авторизации
-        System.out.println("\uD83D\uDD35 Попытка замены данных без токена авторизации.\n");
+        Log.info("\uD83D\uDD35 Попытка замены данных без токена авторизации.\n");
         Response patchResponse = userAPI.changeUserData(user, "");
 
         // проверка статуса и тела
@@ -136,12 +127,6 @@ public class UserPatchDataParameterizedTest {
     public void postconditions () {
         Response deleteUserResponse = userAPI.deleteUser(accessToken);
         // проверка статуса и тела ответа
-        deleteUserResponse.then()
-                .assertThat()
-                .statusCode(SC_ACCEPTED)
-                .body(
-                        "success", equalTo(true),
-                        "message", equalTo("User successfully removed")
-                );
+        TypedResponse.of(deleteUserResponse).assertMessage(SC_ACCEPTED, true, "User successfully removed");
     }
 }
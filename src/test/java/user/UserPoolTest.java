@@ -0,0 +1,83 @@
+package user;
+
+import api.UserAPI;
+import api.UserPool;
+import io.qameta.allure.Description;
+import io.qameta.allure.junit4.DisplayName;
+import io.restassured.response.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.ApiResponse;
+import service.User;
+import service.UserResponse;
+
+import java.util.List;
+
+import static org.apache.http.HttpStatus.SC_ACCEPTED;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpStatus.SC_UNAUTHORIZED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+// свой пул из одного пользователя: после возврата тест гарантированно получает того же пользователя
+public class UserPoolTest {
+    private static UserPool userPool;
+    private final UserAPI userAPI = new UserAPI();
+
+    @BeforeClass /// Регистрируем пользователя пула
+    public static void createUsers () {
+        userPool = new UserPool(1);
+    }
+
+    @Test
+    @DisplayName("Тест возврата в пул пользователя с изменённым профилем.")
+    @Description("Проверяется, что профиль, помеченный markDirty(), при возврате в пул восстанавливается.")
+    public void dirtyLeaseIsRestoredOnReleaseTest () {
+        User original;
+        try (UserPool.Lease lease = userPool.lease()) {
+            original = new User(lease.getUser().getEmail(), lease.getUser().getPassword(), lease.getUser().getName());
+            User changed = lease.getUser();
+            changed.setName("renamed-" + original.getName());
+            UserResponse.of(userAPI.changeUserData(changed, lease.getAccessToken())).assertUser(SC_OK, changed);
+            lease.markDirty();
+        }
+
+        // тот же пользователь снова выдан с исходными данными
+        try (UserPool.Lease lease = userPool.lease()) {
+            assertEquals(original.getEmail(), lease.getUser().getEmail());
+            UserResponse.of(userAPI.getUserData(lease.getUser(), lease.getAccessToken())).assertUser(SC_OK, original);
+        }
+    }
+
+    @Test
+    @DisplayName("Тест отдельного пользователя, который не возвращается в пул.")
+    @Description("Проверяется, что пользователь fresh() авторизован, а при возврате удаляется.")
+    public void freshLeaseIsDeletedOnReleaseTest () {
+        User user;
+        try (UserPool.Lease lease = userPool.fresh()) {
+            user = lease.getUser();
+            assertNotNull(lease.getAccessToken());
+            UserResponse.of(userAPI.getUserData(user, lease.getAccessToken())).assertUser(SC_OK, user);
+        }
+
+        // удалённый пользователь больше не входит в систему
+        Response loginUserResponse = userAPI.loginUser(user);
+        assertEquals(SC_UNAUTHORIZED, loginUserResponse.getStatusCode());
+    }
+
+    @AfterClass /// Удаляем пользователей пула, если пул создался
+    public static void deleteUsers () {
+        if (userPool == null) {
+            return;
+        }
+        List<ApiResponse> deleteUserResponses = userPool.deleteAll();
+        assertEquals(1, deleteUserResponses.size());
+        for (ApiResponse deleteUserResponse : deleteUserResponses) {
+            // проверка статуса и тела ответа
+            assertEquals(SC_ACCEPTED, deleteUserResponse.getStatusCode());
+            assertEquals(true, deleteUserResponse.path("success"));
+            assertEquals("User successfully removed", deleteUserResponse.path("message"));
+        }
+    }
+}